@@ -0,0 +1,39 @@
+package twins;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import twins.logic.logicImplementation.CallerContext;
+
+// opens the caller scope of every request handled by the controllers,
+// so the calling user is resolved once and reused by the service layers and the use cases
+@Component
+public class CallerContextInterceptor implements HandlerInterceptor {
+	private static final Logger log = LoggerFactory.getLogger(CallerContextInterceptor.class);
+
+	private CallerContext callerContext;
+
+	@Autowired
+	public void setCallerContext(CallerContext callerContext) {
+		this.callerContext = callerContext;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		this.callerContext.begin();
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		int lookups = this.callerContext.end();
+		log.info("{} {} resolved users {} time(s)", request.getMethod(), request.getRequestURI(), lookups);
+	}
+}
@@ -0,0 +1,22 @@
+package twins;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+	private CallerContextInterceptor callerContextInterceptor;
+
+	@Autowired
+	public void setCallerContextInterceptor(CallerContextInterceptor callerContextInterceptor) {
+		this.callerContextInterceptor = callerContextInterceptor;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(this.callerContextInterceptor).addPathPatterns("/twins/**");
+	}
+}
@@ -1,18 +1,31 @@
 package twins.admin;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import twins.logic.ItemsService;
-import twins.logic.OperationsService;
-import twins.logic.UsersService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import twins.logic.ContinuationToken;
+import twins.logic.UpdatedItemsService;
+import twins.logic.UpdatedOperationsService;
+import twins.logic.UpdatedUsersService;
+import twins.items.ItemBoundary;
 import twins.operations.OperationBoundary;
 import twins.users.UserBoundary;
 
@@ -20,16 +33,20 @@ import twins.users.UserBoundary;
 @RestController
 public class AdminController {
 	
-	private UsersService userService;
-	private OperationsService operationService;
-	private ItemsService itemService;
+	private UpdatedUsersService userService;
+	private UpdatedOperationsService operationService;
+	private UpdatedItemsService itemService;
+	private ObjectMapper jackson;
 	
+	public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
 	
 	@Autowired
-	public AdminController(UsersService userService, OperationsService operationService, ItemsService itemService) {
+	public AdminController(UpdatedUsersService userService, UpdatedOperationsService operationService, UpdatedItemsService itemService,
+			ObjectMapper jackson) {
 		this.userService = userService;
 		this.operationService = operationService;
 		this.itemService = itemService;
+		this.jackson = jackson;
 	}
 	@RequestMapping(
 			path = "/twins/admin/users/{userSpace}/{userEmail}",
@@ -58,36 +75,136 @@ public class AdminController {
 		this.operationService.deleteAllOperations(space, email);
 	}
 
+	// invoke url, either with no optional parameters : /twins/admin/users/{userSpace}/{userEmail}
+	//             		  or with optional parameters : /twins/admin/users/{userSpace}/{userEmail}?size=20&page=2
+	//             		  or after a continuation token : /twins/admin/users/{userSpace}/{userEmail}?size=20&after={X-Continuation-Token}
 	@RequestMapping(
 			path = "/twins/admin/users/{userSpace}/{userEmail}",
 			method = RequestMethod.GET,
 			produces = MediaType.APPLICATION_JSON_VALUE)
-	public UserBoundary[] exportAllUsers(
+	public ResponseEntity<UserBoundary[]> exportAllUsers(
 			@PathVariable("userSpace") String space,
 			@PathVariable("userEmail") String email,
 			@RequestParam(name="size", required = false, defaultValue = "20") int size,
-			@RequestParam(name="page", required = false, defaultValue = "0") int page){
-		return this.userService.getAllUsers(space, email, size, page).toArray(new UserBoundary[0]);
+			@RequestParam(name="page", required = false, defaultValue = "0") int page,
+			@RequestParam(name="after", required = false) String after){
+		List<UserBoundary> allUsers = after == null
+				? this.userService.getAllUsers(space, email, size, page)
+				: this.userService.getAllUsersAfter(space, email, after, size);
+		
+		String token = ContinuationToken.ofLast(allUsers);
+		if (token == null)
+			return ResponseEntity.ok(allUsers.toArray(new UserBoundary[0]));
+		return ResponseEntity.ok()
+				.header(ContinuationToken.HEADER, token)
+				.body(allUsers.toArray(new UserBoundary[0]));
 	}
 	
 
 	// invoke url, either with no optional parameters : /twins/admin/operations/{userSpace}/{userEmail}
 	//             		  or with optional parameters : /twins/admin/operations/{userSpace}/{userEmail}?size=20&page=2
+	//             		  or after a continuation token : /twins/admin/operations/{userSpace}/{userEmail}?size=20&after={X-Continuation-Token}
 	@RequestMapping(
 			path = "/twins/admin/operations/{userSpace}/{userEmail}",
 			method = RequestMethod.GET,
 			produces = MediaType.APPLICATION_JSON_VALUE)
-	public OperationBoundary[] exportAllOperations(
+	public ResponseEntity<OperationBoundary[]> exportAllOperations(
 			@PathVariable("userSpace") String space,
 			@PathVariable("userEmail") String email,
 			@RequestParam(name="size", required = false, defaultValue = "20") int size,
-			@RequestParam(name="page", required = false, defaultValue = "0") int page) {
+			@RequestParam(name="page", required = false, defaultValue = "0") int page,
+			@RequestParam(name="after", required = false) String after) {
 		
-		List<OperationBoundary> allOperations = 
-				this.operationService
-				.getAllOperations(space, email, size, page);
+		List<OperationBoundary> allOperations = after == null
+				? this.operationService.getAllOperations(space, email, size, page)
+				: this.operationService.getAllOperationsAfter(space, email, after, size);
+		
+		String token = ContinuationToken.ofLast(allOperations);
+		if (token == null)
+			return ResponseEntity.ok(allOperations.toArray(new OperationBoundary[0]));
+		return ResponseEntity.ok()
+				.header(ContinuationToken.HEADER, token)
+				.body(allOperations.toArray(new OperationBoundary[0]));
+	}
+	
+	// invoke url : /twins/admin/users/{userSpace}/{userEmail}/cache
+	@RequestMapping(
+			path = "/twins/admin/users/{userSpace}/{userEmail}/cache",
+			method = RequestMethod.GET,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public Map<String, Object> getLoginCacheStatistics(
+			@PathVariable("userSpace") String space,
+			@PathVariable("userEmail") String email) {
+		return this.userService.getLoginCacheStatistics(space, email);
+	}
+	
+	// invoke url : /twins/admin/items/{userSpace}/{userEmail}/attributes
+	@RequestMapping(
+			path = "/twins/admin/items/{userSpace}/{userEmail}/attributes",
+			method = RequestMethod.GET,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public Map<String, Object> getAttributesStatistics(
+			@PathVariable("userSpace") String space,
+			@PathVariable("userEmail") String email) {
+		return this.itemService.getAttributesStatistics(space, email);
+	}
+	
+	// streaming exports, one JSON document per line written as the rows are read from the database
+	// invoke url : /twins/admin/users/{userSpace}/{userEmail}/export
+	@RequestMapping(
+			path = "/twins/admin/users/{userSpace}/{userEmail}/export",
+			method = RequestMethod.GET,
+			produces = APPLICATION_NDJSON_VALUE)
+	public void streamAllUsers(
+			@PathVariable("userSpace") String space,
+			@PathVariable("userEmail") String email,
+			HttpServletResponse response) throws IOException {
+		this.writeNdjson(response, (Consumer<UserBoundary> consumer) -> this.userService.exportAllUsers(space, email, consumer));
+	}
+	
+	// invoke url : /twins/admin/operations/{userSpace}/{userEmail}/export
+	@RequestMapping(
+			path = "/twins/admin/operations/{userSpace}/{userEmail}/export",
+			method = RequestMethod.GET,
+			produces = APPLICATION_NDJSON_VALUE)
+	public void streamAllOperations(
+			@PathVariable("userSpace") String space,
+			@PathVariable("userEmail") String email,
+			HttpServletResponse response) throws IOException {
+		this.writeNdjson(response, (Consumer<OperationBoundary> consumer) -> this.operationService.exportAllOperations(space, email, consumer));
+	}
+	
+	// invoke url : /twins/admin/items/{userSpace}/{userEmail}/export
+	@RequestMapping(
+			path = "/twins/admin/items/{userSpace}/{userEmail}/export",
+			method = RequestMethod.GET,
+			produces = APPLICATION_NDJSON_VALUE)
+	public void streamAllItems(
+			@PathVariable("userSpace") String space,
+			@PathVariable("userEmail") String email,
+			HttpServletResponse response) throws IOException {
+		this.writeNdjson(response, (Consumer<ItemBoundary> consumer) -> this.itemService.exportAllItems(space, email, consumer));
+	}
+	
+	// the export runs on the request thread, inside the transaction that holds the database cursor
+	private <T> void writeNdjson(HttpServletResponse response, Consumer<Consumer<T>> export) throws IOException {
+		response.setContentType(APPLICATION_NDJSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
 		
-		return allOperations
-				.toArray(new OperationBoundary[0]);
+		OutputStream out = response.getOutputStream();
+		ObjectWriter writer = this.jackson.writer();
+		try {
+			export.accept(row -> {
+				try {
+					out.write(writer.writeValueAsBytes(row));
+					out.write('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		out.flush();
 	}
 }
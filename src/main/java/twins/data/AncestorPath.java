@@ -0,0 +1,58 @@
+package twins.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// materialized path of the ancestors of an item, from the root down to the parent.
+// "/" for an item without parent, "/space@@id/space@@id/" for an item two levels deep.
+// the descendants of an item are exactly the items whose path starts with childPath() of that item, see startsWith()
+public class AncestorPath {
+	public static final String ROOT = "/";
+	public static final char LIKE_ESCAPE = '!';
+
+	private static final String KEY_SEPARATOR = "@@";
+
+	private AncestorPath() {
+	}
+
+	// path of the children of an item with the given path
+	public static String childPath(String ancestorPath, ItemIdPK itemId) {
+		return ancestorPath + itemId.getSpace() + KEY_SEPARATOR + itemId.getId() + "/";
+	}
+
+	// nearest first: the parent, then the grandparent, up to the root
+	public static List<ItemIdPK> ancestors(String ancestorPath) {
+		List<ItemIdPK> rv = new ArrayList<>();
+		if (ancestorPath == null)
+			return rv;
+
+		for (String key : ancestorPath.split("/")) {
+			int separator = key.indexOf(KEY_SEPARATOR);
+			if (separator < 0)
+				continue;
+			rv.add(0, new ItemIdPK(key.substring(0, separator), key.substring(separator + KEY_SEPARATOR.length())));
+		}
+		return rv;
+	}
+
+	// the parent of an item with the given path, null for a root item
+	public static ItemIdPK parent(String ancestorPath) {
+		List<ItemIdPK> ancestors = ancestors(ancestorPath);
+		return ancestors.isEmpty() ? null : ancestors.get(0);
+	}
+
+	public static int depth(String ancestorPath) {
+		return ancestors(ancestorPath).size();
+	}
+
+	// LIKE pattern matching every path that starts with the given prefix
+	public static String startsWith(String prefix) {
+		StringBuilder rv = new StringBuilder();
+		for (char c : prefix.toCharArray()) {
+			if (c == '%' || c == '_' || c == LIKE_ESCAPE)
+				rv.append(LIKE_ESCAPE);
+			rv.append(c);
+		}
+		return rv.append('%').toString();
+	}
+}
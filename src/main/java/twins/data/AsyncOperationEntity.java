@@ -0,0 +1,123 @@
+package twins.data;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Transient;
+
+//	ASYNC_OPERATIONS
+//	-----------------------------------------------------------------------------------------------------------------------------------------------------
+//	OPERATION_SPACE |OPERATION_ID | USER_SPACE   | USER_EMAIL	| STATUS	| QUEUED_TIMESTAMP	| STARTED_TIMESTAMP	| FINISHED_TIMESTAMP	| ERROR			| RESULT
+//	VARCHAR(255)  	|VARCHAR(255) | VARCHAR(255) | VARCHAR(255)	| INT		| TIMESTAMP			| TIMESTAMP			| TIMESTAMP				| VARCHAR(1024)	| CLOB
+//	<PK>			|<PK>		  |
+//	progress and result of an operation invoked asynchronously, updated by the asyncInbox listener
+@Entity
+@Table(name = "ASYNC_OPERATIONS", indexes = {
+		@Index(name = "IDX_ASYNC_OPERATIONS_FINISHED", columnList = "finishedTimestamp") })
+public class AsyncOperationEntity {
+	public static final int MAX_ERROR_LENGTH = 1024;
+
+	private OperationIdPK operationIdPK;
+	private String userSpace;
+	private String userEmail;
+	private AsyncOperationStatus status;
+	private Date queuedTimestamp;
+	private Date startedTimestamp;
+	private Date finishedTimestamp;
+	private String error;
+	private String result;
+
+	public AsyncOperationEntity() {
+	}
+
+	@EmbeddedId
+	public OperationIdPK getOperationIdPK() {
+		return operationIdPK;
+	}
+
+	public void setOperationIdPK(OperationIdPK operationIdPK) {
+		this.operationIdPK = operationIdPK;
+	}
+
+	public String getUserSpace() {
+		return userSpace;
+	}
+
+	public void setUserSpace(String userSpace) {
+		this.userSpace = userSpace;
+	}
+
+	public String getUserEmail() {
+		return userEmail;
+	}
+
+	public void setUserEmail(String userEmail) {
+		this.userEmail = userEmail;
+	}
+
+	public AsyncOperationStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(AsyncOperationStatus status) {
+		this.status = status;
+	}
+
+	@Temporal(TemporalType.TIMESTAMP)
+	public Date getQueuedTimestamp() {
+		return queuedTimestamp;
+	}
+
+	public void setQueuedTimestamp(Date queuedTimestamp) {
+		this.queuedTimestamp = queuedTimestamp;
+	}
+
+	@Temporal(TemporalType.TIMESTAMP)
+	public Date getStartedTimestamp() {
+		return startedTimestamp;
+	}
+
+	public void setStartedTimestamp(Date startedTimestamp) {
+		this.startedTimestamp = startedTimestamp;
+	}
+
+	@Temporal(TemporalType.TIMESTAMP)
+	public Date getFinishedTimestamp() {
+		return finishedTimestamp;
+	}
+
+	public void setFinishedTimestamp(Date finishedTimestamp) {
+		this.finishedTimestamp = finishedTimestamp;
+	}
+
+	@Column(length = MAX_ERROR_LENGTH)
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	// the JSON of the value returned by the use case
+	@Lob
+	public String getResult() {
+		return result;
+	}
+
+	public void setResult(String result) {
+		this.result = result;
+	}
+
+	@Transient
+	public boolean isFinished() {
+		return this.status == AsyncOperationStatus.DONE || this.status == AsyncOperationStatus.FAILED;
+	}
+}
@@ -0,0 +1,10 @@
+package twins.data;
+
+public enum AsyncOperationStatus {
+	QUEUED,
+	RUNNING,
+	DONE,
+	FAILED,
+	// failed, the message is redelivered and runs again
+	RETRYING
+}
@@ -0,0 +1,276 @@
+package twins.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+// storage format of the item and operation attributes.
+// with twins.attributes.storage=binary the attributes are written as Smile to the *_ATTRIBUTES_BIN column,
+// the first byte of a binary value is its format marker. text rows stay readable in both modes.
+// with twins.attributes.compression.threshold-bytes > 0 larger values are deflated into the binary column,
+// the marker is followed by the inflated length.
+// types listed in twins.attributes.text-types are always stored as text, e.g. to keep them readable from SQL
+@Component
+public class AttributesStorage {
+	public static final byte SMILE = 1;
+	public static final byte DEFLATE_SMILE = 2;
+	public static final byte DEFLATE_JSON = 3;
+
+	private JsonFactory textFactory;
+	private SmileFactory smileFactory;
+	private boolean binary;
+	private Set<String> textTypes;
+	private int compressionThreshold;
+	private int compressionLevel;
+	private AtomicLong compressedValues;
+	private AtomicLong plainBytes;
+	private AtomicLong compressedBytes;
+	private AtomicLong compressNanos;
+	private AtomicLong inflatedValues;
+	private AtomicLong inflateNanos;
+
+	public AttributesStorage() {
+		this.textFactory = new JsonFactory();
+		this.smileFactory = new SmileFactory();
+		this.textTypes = new HashSet<>();
+		this.compressionLevel = Deflater.BEST_SPEED;
+		this.compressedValues = new AtomicLong();
+		this.plainBytes = new AtomicLong();
+		this.compressedBytes = new AtomicLong();
+		this.compressNanos = new AtomicLong();
+		this.inflatedValues = new AtomicLong();
+		this.inflateNanos = new AtomicLong();
+	}
+
+	@Value("${twins.attributes.storage:text}")
+	public void setStorage(String storage) {
+		this.binary = "binary".equalsIgnoreCase(storage);
+	}
+
+	@Value("${twins.attributes.text-types:}")
+	public void setTextTypes(String[] textTypes) {
+		this.textTypes = new HashSet<>(Arrays.asList(textTypes));
+	}
+
+	@Value("${twins.attributes.compression.threshold-bytes:0}")
+	public void setCompressionThreshold(int compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	@Value("${twins.attributes.compression.level:1}")
+	public void setCompressionLevel(int compressionLevel) {
+		this.compressionLevel = compressionLevel;
+	}
+
+	public boolean isBinary() {
+		return binary;
+	}
+
+	public boolean isCompressing() {
+		return this.compressionThreshold > 0;
+	}
+
+	public String read(ItemEntity entity) {
+		return this.toJson(entity.getItemAttributes(), entity.getItemAttributesBinary());
+	}
+
+	public void write(ItemEntity entity, String json) {
+		byte[] stored = null;
+		if (json != null && !this.textTypes.contains(entity.getType()))
+			stored = this.encode(json);
+
+		if (stored != null) {
+			entity.setItemAttributesBinary(stored);
+			entity.setItemAttributes(null);
+		} else {
+			entity.setItemAttributes(json);
+			entity.setItemAttributesBinary(null);
+		}
+	}
+
+	public String read(OperationEntity entity) {
+		return this.toJson(entity.getOperationAttributes(), entity.getOperationAttributesBinary());
+	}
+
+	public void write(OperationEntity entity, String json) {
+		byte[] stored = null;
+		if (json != null)
+			stored = this.encode(json);
+
+		if (stored != null) {
+			entity.setOperationAttributesBinary(stored);
+			entity.setOperationAttributes(null);
+		} else {
+			entity.setOperationAttributes(json);
+			entity.setOperationAttributesBinary(null);
+		}
+	}
+
+	public Map<String, Object> getStatistics() {
+		long plain = this.plainBytes.get();
+		long compressed = this.compressedBytes.get();
+
+		Map<String, Object> statistics = new HashMap<>();
+		statistics.put("storage", this.binary ? "binary" : "text");
+		statistics.put("compressionThreshold", this.compressionThreshold);
+		statistics.put("compressedValues", this.compressedValues.get());
+		statistics.put("plainBytes", plain);
+		statistics.put("compressedBytes", compressed);
+		statistics.put("compressionRatio", compressed == 0 ? 0 : (double) plain / compressed);
+		statistics.put("compressMillis", this.compressNanos.get() / 1000000);
+		statistics.put("inflatedValues", this.inflatedValues.get());
+		statistics.put("inflateMillis", this.inflateNanos.get() / 1000000);
+		return statistics;
+	}
+
+	private String toJson(String text, byte[] stored) {
+		if (stored == null)
+			return text;
+		return this.decode(stored);
+	}
+
+	// null when the value stays in the text column
+	private byte[] encode(String json) {
+		byte[] payload;
+		byte format;
+		if (this.binary) {
+			payload = this.toSmile(json);
+			format = SMILE;
+		} else if (this.isCompressing() && json.length() > this.compressionThreshold) {
+			payload = json.getBytes(StandardCharsets.UTF_8);
+			format = 0;
+		} else {
+			return null;
+		}
+
+		if (this.isCompressing() && payload.length > this.compressionThreshold) {
+			byte[] compressed = this.deflate(payload, format == SMILE ? DEFLATE_SMILE : DEFLATE_JSON);
+			if (compressed != null)
+				return compressed;
+		}
+
+		// incompressible text is kept as text
+		if (format != SMILE)
+			return null;
+
+		byte[] rv = new byte[payload.length + 1];
+		rv[0] = SMILE;
+		System.arraycopy(payload, 0, rv, 1, payload.length);
+		return rv;
+	}
+
+	private String decode(byte[] stored) {
+		if (stored.length == 0)
+			throw new RuntimeException("Unknown attributes format: empty");
+
+		switch (stored[0]) {
+		case SMILE:
+			return this.fromSmile(stored, 1, stored.length - 1);
+		case DEFLATE_SMILE:
+			byte[] smile = this.inflate(stored);
+			return this.fromSmile(smile, 0, smile.length);
+		case DEFLATE_JSON:
+			return new String(this.inflate(stored), StandardCharsets.UTF_8);
+		default:
+			throw new RuntimeException("Unknown attributes format: " + stored[0]);
+		}
+	}
+
+	// marker, inflated length and the deflated payload. null when deflating does not save space
+	private byte[] deflate(byte[] payload, byte format) {
+		long start = System.nanoTime();
+		Deflater deflater = new Deflater(this.compressionLevel);
+		try {
+			deflater.setInput(payload);
+			deflater.finish();
+			byte[] buffer = new byte[payload.length];
+			int length = 0;
+			while (!deflater.finished() && length < buffer.length)
+				length += deflater.deflate(buffer, length, buffer.length - length);
+			if (!deflater.finished() || length + 5 >= payload.length)
+				return null;
+
+			this.compressedValues.incrementAndGet();
+			this.plainBytes.addAndGet(payload.length);
+			this.compressedBytes.addAndGet(length + 5);
+			return ByteBuffer.allocate(length + 5)
+					.put(format)
+					.putInt(payload.length)
+					.put(buffer, 0, length)
+					.array();
+		} finally {
+			deflater.end();
+			this.compressNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	private byte[] inflate(byte[] stored) {
+		long start = System.nanoTime();
+		Inflater inflater = new Inflater();
+		try {
+			byte[] rv = new byte[ByteBuffer.wrap(stored, 1, 4).getInt()];
+			inflater.setInput(stored, 5, stored.length - 5);
+			int length = 0;
+			while (length < rv.length) {
+				int inflated = inflater.inflate(rv, length, rv.length - length);
+				if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+					break;
+				length += inflated;
+			}
+			if (length != rv.length)
+				throw new RuntimeException("Could not inflate attributes, the value is truncated");
+
+			this.inflatedValues.incrementAndGet();
+			return rv;
+		} catch (DataFormatException e) {
+			throw new RuntimeException("Could not inflate attributes", e);
+		} finally {
+			inflater.end();
+			this.inflateNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	// the tokens are copied from one format to the other, no tree or map is built
+	private byte[] toSmile(String json) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(json.length());
+		try (JsonParser parser = this.textFactory.createParser(json);
+				JsonGenerator generator = this.smileFactory.createGenerator(out)) {
+			parser.nextToken();
+			generator.copyCurrentStructure(parser);
+		} catch (IOException e) {
+			throw new RuntimeException("Could not encode attributes", e);
+		}
+		return out.toByteArray();
+	}
+
+	private String fromSmile(byte[] smile, int offset, int length) {
+		StringWriter out = new StringWriter(length * 2);
+		try (JsonParser parser = this.smileFactory.createParser(smile, offset, length);
+				JsonGenerator generator = this.textFactory.createGenerator(out)) {
+			parser.nextToken();
+			generator.copyCurrentStructure(parser);
+		} catch (IOException e) {
+			throw new RuntimeException("Could not decode attributes", e);
+		}
+		return out.toString();
+	}
+}
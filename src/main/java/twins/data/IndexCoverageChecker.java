@@ -0,0 +1,202 @@
+package twins.data;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import twins.data.dao.AsyncOperationsDao;
+import twins.data.dao.ItemsDao;
+import twins.data.dao.OperationsDao;
+import twins.data.dao.RevenueRollupsDao;
+import twins.data.dao.UsersDao;
+
+// logs every dao query whose filter columns are not the leading columns of an index of its table.
+// every query declared on a dao must be registered here, the ones that are not are logged as well
+@Component
+public class IndexCoverageChecker {
+	private static final Logger log = LoggerFactory.getLogger(IndexCoverageChecker.class);
+	private static final List<Class<?>> DAOS = Arrays.asList(
+			ItemsDao.class, UsersDao.class, OperationsDao.class, AsyncOperationsDao.class, RevenueRollupsDao.class);
+
+	private DataSource dataSource;
+	private List<AccessPattern> accessPatterns;
+
+	public IndexCoverageChecker() {
+		this.accessPatterns = new ArrayList<>();
+
+		// ITEMS, the primary key is (id, space)
+		this.register(ItemsDao.class, "findAll(sorted by createdTimestamp)", "items", "created_timestamp");
+		this.register(ItemsDao.class, "findAllByParent_itemIdPK", "items", "parent_id", "parent_space");
+		this.register(ItemsDao.class, "findAllByChildren_itemIdPK", "items", "id", "space");
+		this.register(ItemsDao.class, "findAllByTypeAndCreatedTimestamp", "items", "type", "created_timestamp");
+		this.register(ItemsDao.class, "findAllByTypeAndCreatedTimestampBetween", "items", "type");
+		this.register(ItemsDao.class, "streamAllByType", "items", "type");
+		this.register(ItemsDao.class, "streamAllByTypeAndCreatedTimestampBetween", "items", "type");
+		this.register(ItemsDao.class, "existsByType", "items", "type");
+		this.register(ItemsDao.class, "findAllByTypeAndActive", "items", "type", "active");
+		this.register(ItemsDao.class, "findAllByActive", "items", "active", "created_timestamp");
+		this.register(ItemsDao.class, "findByItemIdPKAndActive", "items", "id", "space");
+		this.register(ItemsDao.class, "findAllByItemIdPKIn", "items", "id", "space");
+		this.register(ItemsDao.class, "findAllByItemIdPKInAndActive", "items", "id", "space");
+		this.register(ItemsDao.class, "findByIdForUpdate", "items", "id", "space");
+		this.register(ItemsDao.class, "findAllAfter", "items", "created_timestamp", "id", "space");
+		this.register(ItemsDao.class, "findAllByActiveAfter", "items", "active", "created_timestamp", "id", "space");
+		this.register(ItemsDao.class, "findAllByParentAfter", "items", "parent_id", "parent_space", "created_timestamp");
+		this.register(ItemsDao.class, "findAllByTypeAndActiveAfter", "items", "type", "active", "created_timestamp");
+		this.register(ItemsDao.class, "findAllDescendants", "items", "ancestor_path");
+		this.register(ItemsDao.class, "findAllDescendantsByActive", "items", "ancestor_path");
+		this.register(ItemsDao.class, "moveDescendants", "items", "ancestor_path");
+		this.register(ItemsDao.class, "fillChildAncestorPaths", "items", "ancestor_path");
+		this.register(ItemsDao.class, "existsByAncestorPathIsNull", "items", "ancestor_path");
+		this.register(ItemsDao.class, "countChildrenByType", "items", "parent_id", "parent_space");
+		this.register(ItemsDao.class, "findAllSummaries", "items", "created_timestamp");
+		this.register(ItemsDao.class, "findAllSummariesByActive", "items", "active", "created_timestamp");
+		this.register(ItemsDao.class, "findAllSummariesByParent", "items", "parent_id", "parent_space");
+		this.register(ItemsDao.class, "findAllSummariesByTypeAndActive", "items", "type", "active");
+		this.register(ItemsDao.class, "findAllWithTextAttributesAfter", "items", "id", "space");
+		// exports and rebuilds read the whole table
+		this.register(ItemsDao.class, "streamAll", "items");
+		this.register(ItemsDao.class, "resetAncestorPaths", "items");
+		this.register(ItemsDao.class, "rebuildChildrenCounts", "items");
+
+		// USERS, the primary key is (email, space)
+		this.register(UsersDao.class, "findAllByRole", "users", "role");
+		this.register(UsersDao.class, "findAllByUserIdIn", "users", "email", "space");
+		this.register(UsersDao.class, "findAllAfter", "users", "username", "email", "space");
+		this.register(UsersDao.class, "findAllByRoleAfter", "users", "role", "username");
+		this.register(UsersDao.class, "streamAll", "users");
+
+		// OPERATIONS, the primary key is (operation_id, operation_space)
+		this.register(OperationsDao.class, "findAll(sorted by createdTimestamp)", "operations", "created_timestamp");
+		this.register(OperationsDao.class, "findAllAfter", "operations", "created_timestamp", "operation_id", "operation_space");
+		this.register(OperationsDao.class, "findAllWithTextAttributesAfter", "operations", "operation_id", "operation_space");
+		this.register(OperationsDao.class, "streamAll", "operations");
+
+		this.register(AsyncOperationsDao.class, "deleteAllFinishedBefore", "async_operations", "finished_timestamp");
+
+		// REVENUE_ROLLUPS, the primary key is the month and the worker
+		this.register(RevenueRollupsDao.class, "addMaintenance", "revenue_rollups", "space", "year", "month", "worker_space", "worker_email");
+		this.register(RevenueRollupsDao.class, "removeMaintenance", "revenue_rollups", "space", "year", "month", "worker_space", "worker_email");
+		this.register(RevenueRollupsDao.class, "deleteEmptyRollup", "revenue_rollups", "space", "year", "month", "worker_space", "worker_email");
+		this.register(RevenueRollupsDao.class, "sumByYearAndMonth", "revenue_rollups", "year", "month");
+		this.register(RevenueRollupsDao.class, "findTopWorkersByYearAndMonth", "revenue_rollups", "year", "month");
+		this.register(RevenueRollupsDao.class, "deleteAllRollups", "revenue_rollups");
+	}
+
+	@Autowired
+	public void setDataSource(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	private void register(Class<?> dao, String query, String table, String... columns) {
+		this.accessPatterns.add(new AccessPattern(dao.getSimpleName() + "." + query, table, columns));
+	}
+
+	// queries declared on the daos that have no access pattern
+	public Set<String> getUnregisteredQueries() {
+		Set<String> registered = new HashSet<>();
+		this.accessPatterns.forEach(pattern -> registered.add(pattern.query));
+
+		Set<String> rv = new TreeSet<>();
+		for (Class<?> dao : DAOS) {
+			for (Method method : dao.getDeclaredMethods()) {
+				String query = dao.getSimpleName() + "." + method.getName();
+				if (!method.isDefault() && !method.isSynthetic() && !registered.contains(query))
+					rv.add(query);
+			}
+		}
+		return rv;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void checkIndexes() {
+		this.getUnregisteredQueries().forEach(query ->
+				log.warn("{} is not registered, its index coverage is not checked", query));
+
+		Map<String, List<List<String>>> indexesByTable = new HashMap<>();
+
+		try (Connection connection = this.dataSource.getConnection()) {
+			DatabaseMetaData metaData = connection.getMetaData();
+			for (AccessPattern pattern : this.accessPatterns) {
+				// reads the whole table by design
+				if (pattern.columns.isEmpty())
+					continue;
+
+				List<List<String>> indexes = indexesByTable.get(pattern.table);
+				if (indexes == null) {
+					indexes = this.readIndexes(metaData, connection.getCatalog(), pattern.table);
+					indexesByTable.put(pattern.table, indexes);
+				}
+
+				if (!this.isCovered(pattern, indexes))
+					log.warn("{} filters {} on {} but no index starts with these columns",
+							pattern.query, pattern.columns, pattern.table);
+			}
+		} catch (Exception e) {
+			log.warn("Could not check the index coverage of the dao queries", e);
+		}
+	}
+
+	private boolean isCovered(AccessPattern pattern, List<List<String>> indexes) {
+		Set<String> wanted = new HashSet<>(pattern.columns);
+		for (List<String> index : indexes) {
+			if (index.size() >= wanted.size()
+					&& new HashSet<>(index.subList(0, wanted.size())).equals(wanted))
+				return true;
+		}
+		return false;
+	}
+
+	// columns of every index of the table, in index order
+	private List<List<String>> readIndexes(DatabaseMetaData metaData, String catalog, String table) throws Exception {
+		Map<String, TreeMap<Short, String>> columnsByIndex = new HashMap<>();
+
+		try (ResultSet rs = metaData.getIndexInfo(catalog, null, table, false, true)) {
+			while (rs.next()) {
+				String indexName = rs.getString("INDEX_NAME");
+				String columnName = rs.getString("COLUMN_NAME");
+				if (indexName == null || columnName == null)
+					continue;
+
+				columnsByIndex
+					.computeIfAbsent(indexName, name -> new TreeMap<>())
+					.put(rs.getShort("ORDINAL_POSITION"), columnName.toLowerCase());
+			}
+		}
+
+		List<List<String>> rv = new ArrayList<>();
+		columnsByIndex.values().forEach(columns -> rv.add(new ArrayList<>(columns.values())));
+		return rv;
+	}
+
+	private static class AccessPattern {
+		private String query;
+		private String table;
+		private List<String> columns;
+
+		public AccessPattern(String query, String table, String... columns) {
+			this.query = query;
+			this.table = table;
+			this.columns = Arrays.asList(columns);
+		}
+	}
+}
@@ -4,9 +4,11 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.persistence.Column;
 import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
@@ -16,11 +18,17 @@ import javax.persistence.TemporalType;
 
 //USERS
 //----------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
-//ID          | SPACE      |TYPE         | NAME          | ACTIVE       | CREATED_TIMESTAMP |USER_ID      | USER_SPACE  | LOCATION_LAT |LOCATION_LNG |ITEMS_ATTRIBUTES|PARENT_ID   | PARENT_SPACE|
-//VARCHAR(255)|VARCHAR(255)|VARCHAR(255) |VARCHAR(255)   | boolean      | TIMESTAMP         |VARCHAR(255) |VARCHAR(255) |  DOUBLE      |  DOUBLE     | CLOB           |VARCHAR(255)|VARCHAR(255)  
+//ID          | SPACE      |TYPE         | NAME          | ACTIVE       | CREATED_TIMESTAMP |USER_ID      | USER_SPACE  | LOCATION_LAT |LOCATION_LNG |ITEMS_ATTRIBUTES|ITEM_ATTRIBUTES_BIN|PARENT_ID   | PARENT_SPACE| ANCESTOR_PATH | DEPTH | CHILDREN_COUNT | CHILDREN_COUNT_BY_TYPE |
+//VARCHAR(255)|VARCHAR(255)|VARCHAR(255) |VARCHAR(255)   | boolean      | TIMESTAMP         |VARCHAR(255) |VARCHAR(255) |  DOUBLE      |  DOUBLE     | CLOB           | BLOB             |VARCHAR(255)|VARCHAR(255)| VARCHAR(768)  | INT   | INT            | VARCHAR(1024)          
 //<PK>        |<PK>        |
 @Entity
-@Table(name = "ITEMS")
+@Table(name = "ITEMS", indexes = {
+		@Index(name = "IDX_ITEMS_CREATED", columnList = "createdTimestamp, id, space"),
+		@Index(name = "IDX_ITEMS_TYPE_CREATED", columnList = "type, createdTimestamp"),
+		@Index(name = "IDX_ITEMS_TYPE_ACTIVE_CREATED", columnList = "type, active, createdTimestamp"),
+		@Index(name = "IDX_ITEMS_ACTIVE_CREATED", columnList = "active, createdTimestamp, id, space"),
+		@Index(name = "IDX_ITEMS_PARENT_CREATED", columnList = "parent_id, parent_space, createdTimestamp"),
+		@Index(name = "IDX_ITEMS_ANCESTOR_PATH", columnList = "ancestorPath") })
 public class ItemEntity {
 
 	private ItemIdPK itemIdPK;
@@ -33,8 +41,13 @@ public class ItemEntity {
 	private double locationLat;
 	private double locationLng;
 	private String itemAttributes;
+	private byte[] itemAttributesBinary;
 	private Set<ItemEntity> children;
 	private ItemEntity parent;
+	private String ancestorPath;
+	private Integer depth;
+	private Integer childrenCount;
+	private String childrenCountByType;
 
 	public ItemEntity() {
 		children = new HashSet<>();
@@ -123,6 +136,17 @@ public class ItemEntity {
 		this.itemAttributes = itemAttributes;
 	}
 
+	// Smile encoded attributes with a leading format byte, see AttributesStorage
+	@Lob
+	@Column(name = "item_attributes_bin")
+	public byte[] getItemAttributesBinary() {
+		return itemAttributesBinary;
+	}
+
+	public void setItemAttributesBinary(byte[] itemAttributesBinary) {
+		this.itemAttributesBinary = itemAttributesBinary;
+	}
+
 	@OneToMany(mappedBy = "parent" , fetch = FetchType.LAZY)
 	public Set<ItemEntity> getChildren() {
 		return children;
@@ -141,6 +165,50 @@ public class ItemEntity {
 		this.parent = parent;
 	}
 
+	// see AncestorPath, null until the hierarchy of an item created before this column is rebuilt
+	@Column(length = 768)
+	public String getAncestorPath() {
+		return ancestorPath;
+	}
+
+	public void setAncestorPath(String ancestorPath) {
+		this.ancestorPath = ancestorPath;
+	}
+
+	// number of ancestors, always kept in line with the ancestor path
+	public Integer getDepth() {
+		return depth;
+	}
+
+	public void setDepth(Integer depth) {
+		this.depth = depth;
+	}
+
+	// number of children, null until first counted for items created before the column existed
+	public Integer getChildrenCount() {
+		return childrenCount;
+	}
+
+	public void setChildrenCount(Integer childrenCount) {
+		this.childrenCount = childrenCount;
+	}
+
+	// JSON object of the number of children of every type
+	@Column(length = 1024)
+	public String getChildrenCountByType() {
+		return childrenCountByType;
+	}
+
+	public void setChildrenCountByType(String childrenCountByType) {
+		this.childrenCountByType = childrenCountByType;
+	}
+
+	public void placeAt(String ancestorPath) {
+		this.setAncestorPath(ancestorPath);
+		this.setDepth(AncestorPath.depth(ancestorPath));
+	}
+
+	// initializes the lazy children of this item, to attach a single child set its parent instead
 	public void addItem(ItemEntity child) {
 		children.add(child);
 		child.setParent(this);
@@ -0,0 +1,7 @@
+package twins.data;
+
+public interface ItemTypeCount {
+	String getType();
+
+	Long getTotal();
+}
@@ -2,8 +2,10 @@ package twins.data;
 
 import java.util.Date;
 
+import javax.persistence.Column;
 import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.Lob;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
@@ -11,12 +13,13 @@ import javax.persistence.TemporalType;
 
 //	OPERATIONS
 //	--------------------------------------------------------------------------------------------------------------------------------------------------------------
-//	OPERATION_SPACE |OPERATION_ID | ITEM_SPACE 	| ITEM_ID	   | USER_SPACE   | USER_EMAIL	| TYPE			|CREATED_TIME_STAMP	|ATTRIBUTES
-//	VARCHAR(255)  	|VARCHAR(255) | VARCHAR(255)| VARCHAR(255) | VARCHAR(255) | VARCHAR(255)| VARCHAR(255)	|TIMESTAMP			|CLOB	
+//	OPERATION_SPACE |OPERATION_ID | ITEM_SPACE 	| ITEM_ID	   | USER_SPACE   | USER_EMAIL	| TYPE			|CREATED_TIME_STAMP	|ATTRIBUTES	|ATTRIBUTES_BIN
+//	VARCHAR(255)  	|VARCHAR(255) | VARCHAR(255)| VARCHAR(255) | VARCHAR(255) | VARCHAR(255)| VARCHAR(255)	|TIMESTAMP			|CLOB		|BLOB
 //	<PK>			|<PK>		  |
 
 @Entity
-@Table(name = "OPERATIONS")
+@Table(name = "OPERATIONS", indexes = {
+		@Index(name = "IDX_OPERATIONS_CREATED", columnList = "createdTimestamp, operationId, operationSpace") })
 public class OperationEntity {
 
 	private OperationIdPK operationIdPK;
@@ -27,6 +30,7 @@ public class OperationEntity {
 	private String type;
 	private Date createdTimestamp;
 	private String operationAttributes;
+	private byte[] operationAttributesBinary;
 
 	public OperationEntity() {
 	}
@@ -98,4 +102,15 @@ public class OperationEntity {
 		this.operationAttributes = operationAttributes;
 	}
 
+	// Smile encoded attributes with a leading format byte, see AttributesStorage
+	@Lob
+	@Column(name = "operation_attributes_bin")
+	public byte[] getOperationAttributesBinary() {
+		return operationAttributesBinary;
+	}
+
+	public void setOperationAttributesBinary(byte[] operationAttributesBinary) {
+		this.operationAttributesBinary = operationAttributesBinary;
+	}
+
 }
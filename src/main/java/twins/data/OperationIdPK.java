@@ -44,6 +44,37 @@ public class OperationIdPK implements Serializable {
 		this.operationId = operationId;
 	}
 
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((operationId == null) ? 0 : operationId.hashCode());
+		result = prime * result + ((operationSpace == null) ? 0 : operationSpace.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		OperationIdPK other = (OperationIdPK) obj;
+		if (operationId == null) {
+			if (other.operationId != null)
+				return false;
+		} else if (!operationId.equals(other.operationId))
+			return false;
+		if (operationSpace == null) {
+			if (other.operationSpace != null)
+				return false;
+		} else if (!operationSpace.equals(other.operationSpace))
+			return false;
+		return true;
+	}
+
 	@Override
 	public String toString() {
 		return operationSpace + "@@" + operationId;
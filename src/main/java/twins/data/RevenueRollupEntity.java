@@ -0,0 +1,52 @@
+package twins.data;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+//	REVENUE_ROLLUPS
+//	-------------------------------------------------------------------------------------------------
+//	SPACE 			| YEAR	| MONTH	| WORKER_SPACE	| WORKER_EMAIL	| REVENUE	| MAINTENANCES
+//	VARCHAR(255)  	| INT	| INT	| VARCHAR(255)	| VARCHAR(255)	| DOUBLE	| BIGINT
+//	<PK>			| <PK>	| <PK>	| <PK>			| <PK>			|
+//	revenue of priced vehicle maintenances per month and worker, maintained on every item write.
+//	maintenances without a worker are counted with an empty WORKER_SPACE and WORKER_EMAIL
+@Entity
+@Table(name = "REVENUE_ROLLUPS", indexes = {
+		@Index(name = "IDX_REVENUE_ROLLUPS_MONTH", columnList = "year, month") })
+public class RevenueRollupEntity {
+
+	private RevenueRollupIdPK revenueRollupIdPK;
+	private double revenue;
+	private long maintenances;
+
+	public RevenueRollupEntity() {
+	}
+
+	@EmbeddedId
+	public RevenueRollupIdPK getRevenueRollupIdPK() {
+		return revenueRollupIdPK;
+	}
+
+	public void setRevenueRollupIdPK(RevenueRollupIdPK revenueRollupIdPK) {
+		this.revenueRollupIdPK = revenueRollupIdPK;
+	}
+
+	public double getRevenue() {
+		return revenue;
+	}
+
+	public void setRevenue(double revenue) {
+		this.revenue = revenue;
+	}
+
+	public long getMaintenances() {
+		return maintenances;
+	}
+
+	public void setMaintenances(long maintenances) {
+		this.maintenances = maintenances;
+	}
+
+}
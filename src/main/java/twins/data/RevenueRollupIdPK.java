@@ -0,0 +1,114 @@
+package twins.data;
+
+import java.io.Serializable;
+
+import javax.persistence.Embeddable;
+
+@Embeddable
+public class RevenueRollupIdPK implements Serializable {
+
+	private static final long serialVersionUID = -6380911702744253915L;
+	// worker space and email of the revenue of maintenances without a worker
+	public static final String NO_WORKER = "";
+
+	private String space;
+	private int year;
+	private int month;
+	private String workerSpace;
+	private String workerEmail;
+
+	public RevenueRollupIdPK() {
+	}
+
+	public RevenueRollupIdPK(String space, int year, int month, String workerSpace, String workerEmail) {
+		this.space = space;
+		this.year = year;
+		this.month = month;
+		this.workerSpace = workerSpace;
+		this.workerEmail = workerEmail;
+	}
+
+	public String getSpace() {
+		return space;
+	}
+
+	public void setSpace(String space) {
+		this.space = space;
+	}
+
+	public int getYear() {
+		return year;
+	}
+
+	public void setYear(int year) {
+		this.year = year;
+	}
+
+	public int getMonth() {
+		return month;
+	}
+
+	public void setMonth(int month) {
+		this.month = month;
+	}
+
+	public String getWorkerSpace() {
+		return workerSpace;
+	}
+
+	public void setWorkerSpace(String workerSpace) {
+		this.workerSpace = workerSpace;
+	}
+
+	public String getWorkerEmail() {
+		return workerEmail;
+	}
+
+	public void setWorkerEmail(String workerEmail) {
+		this.workerEmail = workerEmail;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + month;
+		result = prime * result + ((space == null) ? 0 : space.hashCode());
+		result = prime * result + ((workerEmail == null) ? 0 : workerEmail.hashCode());
+		result = prime * result + ((workerSpace == null) ? 0 : workerSpace.hashCode());
+		result = prime * result + year;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		RevenueRollupIdPK other = (RevenueRollupIdPK) obj;
+		if (month != other.month)
+			return false;
+		if (space == null) {
+			if (other.space != null)
+				return false;
+		} else if (!space.equals(other.space))
+			return false;
+		if (workerEmail == null) {
+			if (other.workerEmail != null)
+				return false;
+		} else if (!workerEmail.equals(other.workerEmail))
+			return false;
+		if (workerSpace == null) {
+			if (other.workerSpace != null)
+				return false;
+		} else if (!workerSpace.equals(other.workerSpace))
+			return false;
+		if (year != other.year)
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,8 @@
+package twins.data;
+
+// total price and number of priced maintenances of a month, summed by the database over REVENUE_ROLLUPS
+public interface RevenueSummary {
+	public Double getTotal();
+
+	public Long getMaintenances();
+}
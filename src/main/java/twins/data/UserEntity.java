@@ -3,6 +3,7 @@ package twins.data;
 import javax.persistence.EmbeddedId;
 //import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 //import javax.persistence.Lob;
 import javax.persistence.Table;
 
@@ -14,7 +15,9 @@ import javax.persistence.Table;
 //VARCHAR(255)  |VARCHAR(255) |INT        | VARCHAR(255) | VARCHAR(255) | 
 //<PK>
 @Entity
-@Table(name = "USERS")
+@Table(name = "USERS", indexes = {
+		@Index(name = "IDX_USERS_ROLE_USERNAME", columnList = "role, username"),
+		@Index(name = "IDX_USERS_USERNAME", columnList = "username, email, space") })
 public class UserEntity {
 
 	private UserIdPK userId;
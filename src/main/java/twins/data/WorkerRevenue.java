@@ -0,0 +1,12 @@
+package twins.data;
+
+// revenue of a single worker in a month, grouped and ranked by the database over REVENUE_ROLLUPS
+public interface WorkerRevenue {
+	public String getWorkerSpace();
+
+	public String getWorkerEmail();
+
+	public Double getRevenue();
+
+	public Long getMaintenances();
+}
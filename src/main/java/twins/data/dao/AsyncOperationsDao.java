@@ -0,0 +1,18 @@
+package twins.data.dao;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+import twins.data.AsyncOperationEntity;
+import twins.data.OperationIdPK;
+
+public interface AsyncOperationsDao extends PagingAndSortingRepository<AsyncOperationEntity, OperationIdPK> {
+
+	@Modifying
+	@Query("DELETE FROM AsyncOperationEntity a WHERE a.finishedTimestamp < :finishedTimestamp")
+	public int deleteAllFinishedBefore(@Param("finishedTimestamp") Date finishedTimestamp);
+}
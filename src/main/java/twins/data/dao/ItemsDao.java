@@ -1,14 +1,26 @@
 package twins.data.dao;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
 import twins.data.ItemEntity;
 import twins.data.ItemIdPK;
+import twins.data.ItemTypeCount;
+import twins.items.ItemSummary;
 
 public interface ItemsDao extends PagingAndSortingRepository<ItemEntity, ItemIdPK> {
 	public List<ItemEntity> findAllByParent_itemIdPK(
@@ -29,8 +41,216 @@ public interface ItemsDao extends PagingAndSortingRepository<ItemEntity, ItemIdP
 			@Param("startdate") Date startdate,
 			@Param("enddate") Date enddate);
 	
+	// forward-only cursor over the items of a type, used to aggregate their attributes in Java
+	@QueryHints({
+			@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("SELECT i FROM ItemEntity i WHERE i.type = :type")
+	public Stream<ItemEntity> streamAllByType(
+			@Param("type") String type);
+	
+	@QueryHints({
+			@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("SELECT i FROM ItemEntity i WHERE i.type = :type AND i.createdTimestamp BETWEEN :startdate AND :enddate")
+	public Stream<ItemEntity> streamAllByTypeAndCreatedTimestampBetween(
+			@Param("type") String type, 
+			@Param("startdate") Date startdate,
+			@Param("enddate") Date enddate);
+	
+	public boolean existsByType(
+			@Param("type") String type);
+	
 	public List<ItemEntity> findAllByTypeAndActive(
 			@Param("type") String type, 
 			@Param("active") boolean active,
-			Pageable pageable);	
+			Pageable pageable);
+	
+	public List<ItemEntity> findAllByActive(
+			@Param("active") boolean active,
+			Pageable pageable);
+	
+	public Optional<ItemEntity> findByItemIdPKAndActive(
+			@Param("itemIdPK") ItemIdPK itemIdPK,
+			@Param("active") boolean active);
+	
+	// keyset pagination, the rows strictly after (createdTimestamp, id, space) in DESC order
+	@Query("SELECT i FROM ItemEntity i "
+			+ "WHERE i.createdTimestamp < :createdTimestamp "
+			+ "OR (i.createdTimestamp = :createdTimestamp AND (i.itemIdPK.id < :id "
+			+ "OR (i.itemIdPK.id = :id AND i.itemIdPK.space < :space))) "
+			+ "ORDER BY i.createdTimestamp DESC, i.itemIdPK.id DESC, i.itemIdPK.space DESC")
+	public List<ItemEntity> findAllAfter(
+			@Param("createdTimestamp") Date createdTimestamp,
+			@Param("id") String id,
+			@Param("space") String space,
+			Pageable pageable);
+	
+	@Query("SELECT i FROM ItemEntity i "
+			+ "WHERE i.active = :active "
+			+ "AND (i.createdTimestamp < :createdTimestamp "
+			+ "OR (i.createdTimestamp = :createdTimestamp AND (i.itemIdPK.id < :id "
+			+ "OR (i.itemIdPK.id = :id AND i.itemIdPK.space < :space)))) "
+			+ "ORDER BY i.createdTimestamp DESC, i.itemIdPK.id DESC, i.itemIdPK.space DESC")
+	public List<ItemEntity> findAllByActiveAfter(
+			@Param("active") boolean active,
+			@Param("createdTimestamp") Date createdTimestamp,
+			@Param("id") String id,
+			@Param("space") String space,
+			Pageable pageable);
+	
+	@Query("SELECT i FROM ItemEntity i "
+			+ "WHERE i.parent.itemIdPK = :parentId "
+			+ "AND (i.createdTimestamp < :createdTimestamp "
+			+ "OR (i.createdTimestamp = :createdTimestamp AND (i.itemIdPK.id < :id "
+			+ "OR (i.itemIdPK.id = :id AND i.itemIdPK.space < :space)))) "
+			+ "ORDER BY i.createdTimestamp DESC, i.itemIdPK.id DESC, i.itemIdPK.space DESC")
+	public List<ItemEntity> findAllByParentAfter(
+			@Param("parentId") ItemIdPK parentId,
+			@Param("createdTimestamp") Date createdTimestamp,
+			@Param("id") String id,
+			@Param("space") String space,
+			Pageable pageable);
+	
+	@Query("SELECT i FROM ItemEntity i "
+			+ "WHERE i.type = :type AND i.active = :active "
+			+ "AND (i.createdTimestamp < :createdTimestamp "
+			+ "OR (i.createdTimestamp = :createdTimestamp AND (i.itemIdPK.id < :id "
+			+ "OR (i.itemIdPK.id = :id AND i.itemIdPK.space < :space)))) "
+			+ "ORDER BY i.createdTimestamp DESC, i.itemIdPK.id DESC, i.itemIdPK.space DESC")
+	public List<ItemEntity> findAllByTypeAndActiveAfter(
+			@Param("type") String type, 
+			@Param("active") boolean active,
+			@Param("createdTimestamp") Date createdTimestamp,
+			@Param("id") String id,
+			@Param("space") String space,
+			Pageable pageable);
+	
+	// forward-only cursor for the export, MySQL streams the rows only with fetch size Integer.MIN_VALUE
+	@QueryHints({
+			@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("SELECT i FROM ItemEntity i")
+	public Stream<ItemEntity> streamAll();
+	
+	public List<ItemEntity> findAllByItemIdPKIn(
+			@Param("itemIds") Collection<ItemIdPK> itemIds);
+	
+	public List<ItemEntity> findAllByItemIdPKInAndActive(
+			@Param("itemIds") Collection<ItemIdPK> itemIds,
+			@Param("active") boolean active);
+	
+	// the descendants of an item down to a depth, parents before their children
+	@Query("SELECT i FROM ItemEntity i "
+			+ "WHERE i.ancestorPath LIKE :prefixPattern ESCAPE '!' AND i.depth <= :maxDepth "
+			+ "ORDER BY i.depth, i.createdTimestamp DESC, i.itemIdPK.id DESC, i.itemIdPK.space DESC")
+	public List<ItemEntity> findAllDescendants(
+			@Param("prefixPattern") String prefixPattern,
+			@Param("maxDepth") int maxDepth);
+	
+	@Query("SELECT i FROM ItemEntity i "
+			+ "WHERE i.ancestorPath LIKE :prefixPattern ESCAPE '!' AND i.depth <= :maxDepth AND i.active = :active "
+			+ "ORDER BY i.depth, i.createdTimestamp DESC, i.itemIdPK.id DESC, i.itemIdPK.space DESC")
+	public List<ItemEntity> findAllDescendantsByActive(
+			@Param("prefixPattern") String prefixPattern,
+			@Param("maxDepth") int maxDepth,
+			@Param("active") boolean active);
+	
+	// rewrites the paths and depths of every descendant of a moved item, see AncestorPath
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE ItemEntity i "
+			+ "SET i.ancestorPath = CONCAT(:newPrefix, SUBSTRING(i.ancestorPath, :oldPrefixLength + 1)), "
+			+ "i.depth = i.depth + :depthDelta "
+			+ "WHERE i.ancestorPath LIKE :oldPrefixPattern ESCAPE '!'")
+	public int moveDescendants(
+			@Param("oldPrefixPattern") String oldPrefixPattern,
+			@Param("oldPrefixLength") int oldPrefixLength,
+			@Param("newPrefix") String newPrefix,
+			@Param("depthDelta") int depthDelta);
+	
+	@Modifying
+	@Query(value = "UPDATE items SET ancestor_path = CASE WHEN parent_id IS NULL THEN '/' ELSE NULL END, "
+			+ "depth = CASE WHEN parent_id IS NULL THEN 0 ELSE NULL END",
+			nativeQuery = true)
+	public int resetAncestorPaths();
+	
+	// items created before the hierarchy columns existed, the descendants queries do not see them
+	public boolean existsByAncestorPathIsNull();
+	
+	// one level of the hierarchy per call, the children of the items that already have a path
+	@Modifying
+	@Query(value = "UPDATE items c JOIN items p ON c.parent_id = p.id AND c.parent_space = p.space "
+			+ "SET c.ancestor_path = CONCAT(p.ancestor_path, p.space, '@@', p.id, '/'), c.depth = p.depth + 1 "
+			+ "WHERE c.ancestor_path IS NULL AND p.ancestor_path IS NOT NULL",
+			nativeQuery = true)
+	public int fillChildAncestorPaths();
+	
+	// the row is locked while its children counts or its revenue rollup change
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT i FROM ItemEntity i WHERE i.itemIdPK = :itemIdPK")
+	public Optional<ItemEntity> findByIdForUpdate(
+			@Param("itemIdPK") ItemIdPK itemIdPK);
+	
+	@Query("SELECT i.type AS type, COUNT(i) AS total "
+			+ "FROM ItemEntity i "
+			+ "WHERE i.parent.itemIdPK = :parentId "
+			+ "GROUP BY i.type")
+	public List<ItemTypeCount> countChildrenByType(
+			@Param("parentId") ItemIdPK parentId);
+	
+	// recomputes the children counts of every item from ITEMS
+	@Modifying
+	@Query(value = "UPDATE items p LEFT JOIN ("
+			+ "SELECT t.parent_id, t.parent_space, SUM(t.total) AS total, JSON_OBJECTAGG(t.type, t.total) AS by_type "
+			+ "FROM (SELECT parent_id, parent_space, type, COUNT(*) AS total FROM items "
+			+ "WHERE parent_id IS NOT NULL GROUP BY parent_id, parent_space, type) t "
+			+ "GROUP BY t.parent_id, t.parent_space) c "
+			+ "ON c.parent_id = p.id AND c.parent_space = p.space "
+			+ "SET p.children_count = COALESCE(c.total, 0), p.children_count_by_type = COALESCE(c.by_type, '{}')",
+			nativeQuery = true)
+	public int rebuildChildrenCounts();
+	
+	// summary listings, the attributes column is never selected
+	@Query("SELECT new twins.items.ItemSummary(i.itemIdPK.space, i.itemIdPK.id, i.type, i.name, i.active, "
+			+ "i.createdTimestamp, i.userSpace, i.userEmail, i.locationLat, i.locationLng, i.childrenCount) "
+			+ "FROM ItemEntity i")
+	public List<ItemSummary> findAllSummaries(
+			Pageable pageable);
+	
+	@Query("SELECT new twins.items.ItemSummary(i.itemIdPK.space, i.itemIdPK.id, i.type, i.name, i.active, "
+			+ "i.createdTimestamp, i.userSpace, i.userEmail, i.locationLat, i.locationLng, i.childrenCount) "
+			+ "FROM ItemEntity i "
+			+ "WHERE i.active = :active")
+	public List<ItemSummary> findAllSummariesByActive(
+			@Param("active") boolean active,
+			Pageable pageable);
+	
+	@Query("SELECT new twins.items.ItemSummary(i.itemIdPK.space, i.itemIdPK.id, i.type, i.name, i.active, "
+			+ "i.createdTimestamp, i.userSpace, i.userEmail, i.locationLat, i.locationLng, i.childrenCount) "
+			+ "FROM ItemEntity i "
+			+ "WHERE i.parent.itemIdPK = :parentId")
+	public List<ItemSummary> findAllSummariesByParent(
+			@Param("parentId") ItemIdPK parentId,
+			Pageable pageable);
+	
+	@Query("SELECT new twins.items.ItemSummary(i.itemIdPK.space, i.itemIdPK.id, i.type, i.name, i.active, "
+			+ "i.createdTimestamp, i.userSpace, i.userEmail, i.locationLat, i.locationLng, i.childrenCount) "
+			+ "FROM ItemEntity i "
+			+ "WHERE i.type = :type AND i.active = :active")
+	public List<ItemSummary> findAllSummariesByTypeAndActive(
+			@Param("type") String type,
+			@Param("active") boolean active,
+			Pageable pageable);
+
+	// rows still stored as text, in primary key order strictly after (id, space). used by the attributes migration,
+	// the rows stay locked until the batch is written back so concurrent updates are not overwritten
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT i FROM ItemEntity i "
+			+ "WHERE i.itemAttributes IS NOT NULL AND i.itemAttributesBinary IS NULL "
+			+ "AND (i.itemIdPK.id > :id OR (i.itemIdPK.id = :id AND i.itemIdPK.space > :space)) "
+			+ "ORDER BY i.itemIdPK.id, i.itemIdPK.space")
+	public List<ItemEntity> findAllWithTextAttributesAfter(
+			@Param("id") String id,
+			@Param("space") String space,
+			Pageable pageable);
 }
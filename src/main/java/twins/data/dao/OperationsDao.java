@@ -1,10 +1,53 @@
 package twins.data.dao;
 
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import twins.data.OperationEntity;
 import twins.data.OperationIdPK;
 
 public interface OperationsDao extends PagingAndSortingRepository<OperationEntity, OperationIdPK>  {
 
-}
\ No newline at end of file
+	// keyset pagination, the rows strictly after (createdTimestamp, operationId, operationSpace) in DESC order
+	@Query("SELECT o FROM OperationEntity o "
+			+ "WHERE o.createdTimestamp < :createdTimestamp "
+			+ "OR (o.createdTimestamp = :createdTimestamp AND (o.operationIdPK.operationId < :id "
+			+ "OR (o.operationIdPK.operationId = :id AND o.operationIdPK.operationSpace < :space))) "
+			+ "ORDER BY o.createdTimestamp DESC, o.operationIdPK.operationId DESC, o.operationIdPK.operationSpace DESC")
+	public List<OperationEntity> findAllAfter(
+			@Param("createdTimestamp") Date createdTimestamp,
+			@Param("id") String id,
+			@Param("space") String space,
+			Pageable pageable);
+
+	// forward-only cursor for the export, MySQL streams the rows only with fetch size Integer.MIN_VALUE
+	@QueryHints({
+			@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("SELECT o FROM OperationEntity o")
+	public Stream<OperationEntity> streamAll();
+
+	// rows still stored as text, in primary key order strictly after (operationId, operationSpace). used by the attributes migration,
+	// the rows stay locked until the batch is written back so concurrent updates are not overwritten
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT o FROM OperationEntity o "
+			+ "WHERE o.operationAttributes IS NOT NULL AND o.operationAttributesBinary IS NULL "
+			+ "AND (o.operationIdPK.operationId > :id "
+			+ "OR (o.operationIdPK.operationId = :id AND o.operationIdPK.operationSpace > :space)) "
+			+ "ORDER BY o.operationIdPK.operationId, o.operationIdPK.operationSpace")
+	public List<OperationEntity> findAllWithTextAttributesAfter(
+			@Param("id") String id,
+			@Param("space") String space,
+			Pageable pageable);
+}
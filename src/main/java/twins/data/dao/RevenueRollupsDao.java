@@ -0,0 +1,79 @@
+package twins.data.dao;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+import twins.data.RevenueRollupEntity;
+import twins.data.RevenueRollupIdPK;
+import twins.data.RevenueSummary;
+import twins.data.WorkerRevenue;
+
+public interface RevenueRollupsDao extends PagingAndSortingRepository<RevenueRollupEntity, RevenueRollupIdPK> {
+
+	@Modifying
+	@Query(value = "INSERT INTO revenue_rollups (space, year, month, worker_space, worker_email, revenue, maintenances) "
+			+ "VALUES (:space, :year, :month, :workerSpace, :workerEmail, :price, 1) "
+			+ "ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), maintenances = maintenances + 1",
+			nativeQuery = true)
+	public int addMaintenance(
+			@Param("space") String space,
+			@Param("year") int year,
+			@Param("month") int month,
+			@Param("workerSpace") String workerSpace,
+			@Param("workerEmail") String workerEmail,
+			@Param("price") double price);
+
+	@Modifying
+	@Query(value = "UPDATE revenue_rollups SET revenue = revenue - :price, maintenances = maintenances - 1 "
+			+ "WHERE space = :space AND year = :year AND month = :month "
+			+ "AND worker_space = :workerSpace AND worker_email = :workerEmail",
+			nativeQuery = true)
+	public int removeMaintenance(
+			@Param("space") String space,
+			@Param("year") int year,
+			@Param("month") int month,
+			@Param("workerSpace") String workerSpace,
+			@Param("workerEmail") String workerEmail,
+			@Param("price") double price);
+
+	@Modifying
+	@Query(value = "DELETE FROM revenue_rollups "
+			+ "WHERE space = :space AND year = :year AND month = :month "
+			+ "AND worker_space = :workerSpace AND worker_email = :workerEmail AND maintenances <= 0",
+			nativeQuery = true)
+	public int deleteEmptyRollup(
+			@Param("space") String space,
+			@Param("year") int year,
+			@Param("month") int month,
+			@Param("workerSpace") String workerSpace,
+			@Param("workerEmail") String workerEmail);
+
+	@Query("SELECT COALESCE(SUM(r.revenue), 0.0) AS total, COALESCE(SUM(r.maintenances), 0) AS maintenances "
+			+ "FROM RevenueRollupEntity r "
+			+ "WHERE r.revenueRollupIdPK.year = :year AND r.revenueRollupIdPK.month = :month")
+	public RevenueSummary sumByYearAndMonth(
+			@Param("year") int year,
+			@Param("month") int month);
+
+	@Query("SELECT r.revenueRollupIdPK.workerSpace AS workerSpace, r.revenueRollupIdPK.workerEmail AS workerEmail, "
+			+ "SUM(r.revenue) AS revenue, SUM(r.maintenances) AS maintenances "
+			+ "FROM RevenueRollupEntity r "
+			+ "WHERE r.revenueRollupIdPK.year = :year AND r.revenueRollupIdPK.month = :month "
+			+ "AND r.revenueRollupIdPK.workerEmail <> :noWorker "
+			+ "GROUP BY r.revenueRollupIdPK.workerSpace, r.revenueRollupIdPK.workerEmail "
+			+ "ORDER BY SUM(r.revenue) DESC")
+	public List<WorkerRevenue> findTopWorkersByYearAndMonth(
+			@Param("year") int year,
+			@Param("month") int month,
+			@Param("noWorker") String noWorker,
+			Pageable pageable);
+
+	@Modifying
+	@Query("DELETE FROM RevenueRollupEntity")
+	public int deleteAllRollups();
+}
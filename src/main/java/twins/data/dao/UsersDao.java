@@ -1,8 +1,14 @@
 package twins.data.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
@@ -16,4 +22,39 @@ public interface UsersDao extends PagingAndSortingRepository<UserEntity, UserIdP
 			@Param("role") UserRole role,
 			Pageable pageable);
 
-}
\ No newline at end of file
+	public List<UserEntity> findAllByUserIdIn(
+			@Param("userIds") Collection<UserIdPK> userIds);
+
+	// keyset pagination, the rows strictly after (username, email, space) in DESC order
+	@Query("SELECT u FROM UserEntity u "
+			+ "WHERE u.username < :username "
+			+ "OR (u.username = :username AND (u.userId.email < :email "
+			+ "OR (u.userId.email = :email AND u.userId.space < :space))) "
+			+ "ORDER BY u.username DESC, u.userId.email DESC, u.userId.space DESC")
+	public List<UserEntity> findAllAfter(
+			@Param("username") String username,
+			@Param("email") String email,
+			@Param("space") String space,
+			Pageable pageable);
+
+	@Query("SELECT u FROM UserEntity u "
+			+ "WHERE u.role = :role "
+			+ "AND (u.username < :username "
+			+ "OR (u.username = :username AND (u.userId.email < :email "
+			+ "OR (u.userId.email = :email AND u.userId.space < :space)))) "
+			+ "ORDER BY u.username DESC, u.userId.email DESC, u.userId.space DESC")
+	public List<UserEntity> findAllByRoleAfter(
+			@Param("role") UserRole role,
+			@Param("username") String username,
+			@Param("email") String email,
+			@Param("space") String space,
+			Pageable pageable);
+
+	// forward-only cursor for the export, MySQL streams the rows only with fetch size Integer.MIN_VALUE
+	@QueryHints({
+			@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("SELECT u FROM UserEntity u")
+	public Stream<UserEntity> streamAll();
+
+}
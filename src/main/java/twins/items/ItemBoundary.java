@@ -4,10 +4,18 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import twins.users.User;
 
 
 public class ItemBoundary {
+	private static final ObjectMapper jackson = new ObjectMapper();
 
 	private ItemIdBoundary itemId;
 	private String type;
@@ -17,6 +25,10 @@ public class ItemBoundary {
 	private User createdBy;
 	private Location location;
 	private Map<String, Object> itemAttributes;
+	private String itemAttributesJson;
+	private Integer childrenCount;
+	private Map<String, Integer> childrenCountByType;
+	private String childrenCountByTypeJson;
 
 	public ItemBoundary() {
 		super();
@@ -99,12 +111,88 @@ public class ItemBoundary {
 		this.location = location;
 	}
 
+	// the stored JSON is parsed only when the map is needed, responses write it as is
+	@JsonIgnore
 	public Map<String, Object> getItemAttributes() {
+		if (this.itemAttributesJson != null) {
+			try {
+				this.itemAttributes = jackson.readValue(this.itemAttributesJson, new TypeReference<Map<String, Object>>() {});
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			this.itemAttributesJson = null;
+		}
 		return itemAttributes;
 	}
 
+	@JsonSetter("itemAttributes")
 	public void setItemAttributes(Map<String, Object> map) {
 		this.itemAttributes = map;
+		this.itemAttributesJson = null;
+	}
+
+	@JsonGetter("itemAttributes")
+	@JsonRawValue
+	public String getItemAttributesJson() {
+		if (this.itemAttributesJson != null || this.itemAttributes == null)
+			return this.itemAttributesJson;
+		try {
+			return jackson.writeValueAsString(this.itemAttributes);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@JsonIgnore
+	public void setItemAttributesJson(String json) {
+		this.itemAttributesJson = json;
+		this.itemAttributes = null;
+	}
+
+	public Integer getChildrenCount() {
+		return childrenCount;
+	}
+
+	public void setChildrenCount(Integer childrenCount) {
+		this.childrenCount = childrenCount;
+	}
+
+	// stored as JSON like the item attributes, parsed only when the map is needed
+	@JsonIgnore
+	public Map<String, Integer> getChildrenCountByType() {
+		if (this.childrenCountByTypeJson != null) {
+			try {
+				this.childrenCountByType = jackson.readValue(this.childrenCountByTypeJson, new TypeReference<Map<String, Integer>>() {});
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			this.childrenCountByTypeJson = null;
+		}
+		return childrenCountByType;
+	}
+
+	@JsonSetter("childrenCountByType")
+	public void setChildrenCountByType(Map<String, Integer> childrenCountByType) {
+		this.childrenCountByType = childrenCountByType;
+		this.childrenCountByTypeJson = null;
+	}
+
+	@JsonGetter("childrenCountByType")
+	@JsonRawValue
+	public String getChildrenCountByTypeJson() {
+		if (this.childrenCountByTypeJson != null || this.childrenCountByType == null)
+			return this.childrenCountByTypeJson;
+		try {
+			return jackson.writeValueAsString(this.childrenCountByType);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@JsonIgnore
+	public void setChildrenCountByTypeJson(String json) {
+		this.childrenCountByTypeJson = json;
+		this.childrenCountByType = null;
 	}
 
 }
\ No newline at end of file
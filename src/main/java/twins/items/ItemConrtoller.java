@@ -1,7 +1,13 @@
 package twins.items;
 
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -9,16 +15,17 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import twins.logic.ItemsService;
+import twins.logic.ContinuationToken;
+import twins.logic.UpdatedItemsService;
 
 
 
 @RestController
 public class ItemConrtoller {
-	private ItemsService itemService;
+	private UpdatedItemsService itemService;
 	
 	@Autowired
-	public ItemConrtoller(ItemsService itemService) {
+	public ItemConrtoller(UpdatedItemsService itemService) {
 		this.itemService=itemService;
 	}
 	
@@ -35,6 +42,21 @@ public class ItemConrtoller {
 		return itemService.createItem(space, email, input);
 	}
 
+	// bulk import, the body is either a JSON array of items or one item per line (application/x-ndjson)
+	@RequestMapping(
+			path = "/twins/items/{userSpace}/{userEmail}/bulk",
+			method = RequestMethod.POST,
+			consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" },
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public ItemImportResult[] importItems(
+			@PathVariable("userSpace") String space,
+			@PathVariable("userEmail") String email,
+			HttpServletRequest request) throws IOException {
+
+		return itemService.importItems(space, email, request.getInputStream())
+							.toArray(new ItemImportResult[0]);
+	}
+
 	@RequestMapping(
 			path = "/twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}",
 			method = RequestMethod.PUT,
@@ -64,19 +86,39 @@ public class ItemConrtoller {
 
 	// invoke url, either with no optional parameters : /twins/items/{userSpace}/{userEmail}
 	//             		  or with optional parameters : /twins/items/{userSpace}/{userEmail}?size=20&page=2
+	//             		  or after a continuation token : /twins/items/{userSpace}/{userEmail}?size=20&after={X-Continuation-Token}
+	//             		  or without the attributes : /twins/items/{userSpace}/{userEmail}?size=20&page=2&summary=true
 	@RequestMapping(
 			path = "/twins/items/{userSpace}/{userEmail}",
 			method = RequestMethod.GET,
 			produces = MediaType.APPLICATION_JSON_VALUE)
-	public ItemBoundary[] getAllItems(
+	public ResponseEntity<Object[]> getAllItems(
 			@PathVariable("userSpace") String userSpace,
 			@PathVariable("userEmail") String email,
 			@RequestParam(name="size", required = false, defaultValue = "20") int size,
-			@RequestParam(name="page", required = false, defaultValue = "0") int page) {
+			@RequestParam(name="page", required = false, defaultValue = "0") int page,
+			@RequestParam(name="after", required = false) String after,
+			@RequestParam(name="summary", required = false, defaultValue = "false") boolean summary) {
 
-		return itemService.getAllItems(userSpace, email, size, page)
-							.toArray(new ItemBoundary[0]);
+		// summaries are paged by page and size, a continuation token always returns full items
+		List<?> items = after != null
+				? itemService.getAllItemsAfter(userSpace, email, after, size)
+				: summary
+				? itemService.getAllItemSummaries(userSpace, email, size, page)
+				: itemService.getAllItems(userSpace, email, size, page);
+
+		return withContinuationToken(items);
+	}
+	
+	// the token of the last item lets the client seek to the next page
+	static ResponseEntity<Object[]> withContinuationToken(List<?> items) {
+		String token = ContinuationToken.ofLast(items);
+		if (token == null)
+			return ResponseEntity.ok(items.toArray());
 
+		return ResponseEntity.ok()
+				.header(ContinuationToken.HEADER, token)
+				.body(items.toArray());
 	}
 	
 }
@@ -0,0 +1,51 @@
+package twins.items;
+
+// result of one row of a bulk import, either the id of the created item or the reason it was rejected
+public class ItemImportResult {
+
+	private int index;
+	private ItemIdBoundary itemId;
+	private String error;
+
+	public ItemImportResult() {
+	}
+
+	public ItemImportResult(int index, ItemIdBoundary itemId, String error) {
+		super();
+		this.index = index;
+		this.itemId = itemId;
+		this.error = error;
+	}
+
+	public static ItemImportResult created(int index, ItemIdBoundary itemId) {
+		return new ItemImportResult(index, itemId, null);
+	}
+
+	public static ItemImportResult failed(int index, String error) {
+		return new ItemImportResult(index, null, error);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public ItemIdBoundary getItemId() {
+		return itemId;
+	}
+
+	public void setItemId(ItemIdBoundary itemId) {
+		this.itemId = itemId;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+}
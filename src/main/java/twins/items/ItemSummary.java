@@ -0,0 +1,109 @@
+package twins.items;
+
+import java.util.Date;
+
+import twins.users.User;
+import twins.users.UserId;
+
+// an item without its attributes, built directly by the dao so the attributes are never read or parsed
+public class ItemSummary {
+
+	private ItemIdBoundary itemId;
+	private String type;
+	private String name;
+	private Boolean active;
+	private Date createdTimestamp;
+	private User createdBy;
+	private Location location;
+	private Integer childrenCount;
+
+	public ItemSummary() {
+	}
+
+	public ItemSummary(
+			String space,
+			String id,
+			String type,
+			String name,
+			Boolean active,
+			Date createdTimestamp,
+			String userSpace,
+			String userEmail,
+			double locationLat,
+			double locationLng,
+			Integer childrenCount) {
+		super();
+		this.itemId = new ItemIdBoundary(space, id);
+		this.type = type;
+		this.name = name;
+		this.active = active;
+		this.createdTimestamp = createdTimestamp;
+		this.createdBy = new User(new UserId(userSpace, userEmail));
+		this.location = new Location(locationLat, locationLng);
+		this.childrenCount = childrenCount;
+	}
+
+	public ItemIdBoundary getItemId() {
+		return itemId;
+	}
+
+	public void setItemId(ItemIdBoundary itemId) {
+		this.itemId = itemId;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Boolean isActive() {
+		return active;
+	}
+
+	public void setActive(Boolean active) {
+		this.active = active;
+	}
+
+	public Date getCreatedTimestamp() {
+		return createdTimestamp;
+	}
+
+	public void setCreatedTimestamp(Date createdTimestamp) {
+		this.createdTimestamp = createdTimestamp;
+	}
+
+	public User getCreatedBy() {
+		return createdBy;
+	}
+
+	public void setCreatedBy(User createdBy) {
+		this.createdBy = createdBy;
+	}
+
+	public Location getLocation() {
+		return location;
+	}
+
+	public void setLocation(Location location) {
+		this.location = location;
+	}
+
+	public Integer getChildrenCount() {
+		return childrenCount;
+	}
+
+	public void setChildrenCount(Integer childrenCount) {
+		this.childrenCount = childrenCount;
+	}
+}
@@ -0,0 +1,36 @@
+package twins.items;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// an item with its children, as returned by the subtree of an item
+public class ItemTreeNode {
+
+	private ItemBoundary item;
+	private List<ItemTreeNode> children;
+
+	public ItemTreeNode() {
+		this.children = new ArrayList<>();
+	}
+
+	public ItemTreeNode(ItemBoundary item) {
+		this();
+		this.item = item;
+	}
+
+	public ItemBoundary getItem() {
+		return item;
+	}
+
+	public void setItem(ItemBoundary item) {
+		this.item = item;
+	}
+
+	public List<ItemTreeNode> getChildren() {
+		return children;
+	}
+
+	public void setChildren(List<ItemTreeNode> children) {
+		this.children = children;
+	}
+}
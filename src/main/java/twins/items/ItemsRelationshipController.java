@@ -3,6 +3,7 @@ package twins.items;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -44,19 +45,26 @@ public class ItemsRelationshipController {
 
 	// invoke url, either with no optional parameters : /twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/children
 	//             		  or with optional parameters : /twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/children?size=20&page=2
+	//             		  or after a continuation token : /twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/children?size=20&after={X-Continuation-Token}
+	//             		  or without the attributes : /twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/children?size=20&page=2&summary=true
 	@RequestMapping(path ="/twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/children",
 			method = RequestMethod.GET,
 			produces = MediaType.APPLICATION_JSON_VALUE)
-	public ItemBoundary[] getAllChildren (
+	public ResponseEntity<Object[]> getAllChildren (
 			@PathVariable("userSpace") String userSpace,
 			@PathVariable("userEmail") String userEmail,
 			@PathVariable("itemSpace") String itemSpace,
 			@PathVariable("itemId") String itemId,
 			@RequestParam(name="size", required = false, defaultValue = "20") int size,
-			@RequestParam(name="page", required = false, defaultValue = "0") int page) {
-		return this.updateItemService
-				.getAllChildren(userSpace, userEmail, itemSpace, itemId, size, page)
-			.toArray(new ItemBoundary[0]);
+			@RequestParam(name="page", required = false, defaultValue = "0") int page,
+			@RequestParam(name="after", required = false) String after,
+			@RequestParam(name="summary", required = false, defaultValue = "false") boolean summary) {
+		List<?> children = after != null
+				? this.updateItemService.getAllChildrenAfter(userSpace, userEmail, itemSpace, itemId, after, size)
+				: summary
+				? this.updateItemService.getAllChildrenSummaries(userSpace, userEmail, itemSpace, itemId, size, page)
+				: this.updateItemService.getAllChildren(userSpace, userEmail, itemSpace, itemId, size, page);
+		return ItemConrtoller.withContinuationToken(children);
 	}
 	
 	// operation for getting parent of item of specific user
@@ -75,4 +83,36 @@ public class ItemsRelationshipController {
 		List<ItemBoundary> item = this.updateItemService.getAllParents(userSpace, userEmail, itemSpace, itemId, size, page);
 		return item.toArray(new ItemBoundary[0]);
 	}
+	
+	// operation for getting the nested tree under an item, down to the given depth
+	// invoke url, either with no optional parameters : /twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/subtree
+	//             		  or with optional parameters : /twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/subtree?depth=2&attributes=false
+	@RequestMapping(path ="/twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/subtree",
+			method = RequestMethod.GET,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public ItemTreeNode getSubtree (
+			@PathVariable("userSpace") String userSpace,
+			@PathVariable("userEmail") String userEmail,
+			@PathVariable("itemSpace") String itemSpace,
+			@PathVariable("itemId") String itemId,
+			@RequestParam(name="depth", required = false, defaultValue = "1") int depth,
+			@RequestParam(name="attributes", required = false, defaultValue = "true") boolean attributes) {
+		return this.updateItemService
+				.getSubtree(userSpace, userEmail, itemSpace, itemId, depth, attributes);
+	}
+	
+	// operation for getting the whole chain of ancestors of an item, from its parent up to the root
+	// invoke url : /twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/ancestors
+	@RequestMapping(path ="/twins/items/{userSpace}/{userEmail}/{itemSpace}/{itemId}/ancestors",
+			method = RequestMethod.GET,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public ItemBoundary[] getAllAncestors (
+			@PathVariable("userSpace") String userSpace,
+			@PathVariable("userEmail") String userEmail,
+			@PathVariable("itemSpace") String itemSpace,
+			@PathVariable("itemId") String itemId) {
+		return this.updateItemService
+				.getAllAncestors(userSpace, userEmail, itemSpace, itemId)
+				.toArray(new ItemBoundary[0]);
+	}
 }
@@ -0,0 +1,78 @@
+package twins.items.attributes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import twins.items.ItemBoundary;
+import twins.logic.Exceptions.EmptyFieldsException;
+import twins.operations.OperationBoundary;
+
+// typed attribute schemas of the known item types.
+// every schema has a reader compiled once, it binds the known keys straight from the stored JSON
+// and skips the rest, so use cases never go through a Map<String, Object>
+@Component
+public class AttributeSchemas {
+	public static final String VEHICLE = "vehicle";
+	public static final String MAINTENANCE = "vehicle maintenance";
+	public static final String REPORT = "report";
+
+	private ObjectMapper jackson;
+	private Map<String, ObjectReader> readersByType;
+	private ObjectReader reportReader;
+
+	@Autowired
+	public void setJackson(ObjectMapper jackson) {
+		this.jackson = jackson;
+		this.readersByType = new HashMap<>();
+		this.readersByType.put(VEHICLE, jackson.readerFor(VehicleAttributes.class));
+		this.readersByType.put(MAINTENANCE, jackson.readerFor(MaintenanceAttributes.class));
+		this.readersByType.put(REPORT, jackson.readerFor(ReportAttributes.class));
+		this.reportReader = this.readersByType.get(REPORT);
+	}
+
+	public MaintenanceAttributes readMaintenance(ItemBoundary item) {
+		return this.read(MAINTENANCE, item.getItemAttributesJson());
+	}
+
+	public ReportAttributes readReport(OperationBoundary operation) {
+		return this.readWith(this.reportReader, operation.getOperationAttributesJson());
+	}
+
+	// throws when the attributes of a known item type do not match its schema, other types are free-form
+	public void validate(String itemType, String json) {
+		if (itemType != null && this.readersByType.containsKey(itemType))
+			this.read(itemType, json);
+	}
+
+	// the stored attributes with the non null fields of the typed attributes written over them
+	public String merge(String json, Object attributes) {
+		try {
+			ObjectNode rv = json == null ? this.jackson.createObjectNode() : (ObjectNode) this.jackson.readTree(json);
+			rv.setAll((ObjectNode) this.jackson.valueToTree(attributes));
+			return this.jackson.writeValueAsString(rv);
+		} catch (Exception e) {
+			throw new EmptyFieldsException("Item has illegal attributes", e);
+		}
+	}
+
+	private <T> T read(String itemType, String json) {
+		return this.readWith(this.readersByType.get(itemType), json);
+	}
+
+	private <T> T readWith(ObjectReader reader, String json) {
+		try {
+			if (json == null)
+				return reader.readValue("{}");
+			return reader.readValue(json);
+		} catch (Exception e) {
+			throw new EmptyFieldsException("Item has illegal attributes", e);
+		}
+	}
+}
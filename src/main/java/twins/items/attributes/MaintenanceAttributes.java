@@ -0,0 +1,64 @@
+package twins.items.attributes;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// the known attributes of a `vehicle maintenance` item, the worker and price are set by FIX_VEHICLE
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(Include.NON_NULL)
+public class MaintenanceAttributes {
+	public static final String FIX = "fix";
+
+	private String type;
+	private Boolean fixed;
+	private Double price;
+	private String workerSpace;
+	private String workerEmail;
+
+	public MaintenanceAttributes() {
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	@JsonProperty("isFixed")
+	public Boolean getFixed() {
+		return fixed;
+	}
+
+	@JsonProperty("isFixed")
+	public void setFixed(Boolean fixed) {
+		this.fixed = fixed;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public void setPrice(Double price) {
+		this.price = price;
+	}
+
+	public String getWorkerSpace() {
+		return workerSpace;
+	}
+
+	public void setWorkerSpace(String workerSpace) {
+		this.workerSpace = workerSpace;
+	}
+
+	public String getWorkerEmail() {
+		return workerEmail;
+	}
+
+	public void setWorkerEmail(String workerEmail) {
+		this.workerEmail = workerEmail;
+	}
+}
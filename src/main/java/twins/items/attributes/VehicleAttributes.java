@@ -0,0 +1,26 @@
+package twins.items.attributes;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// the known attributes of a `vehicle` item, only validated on write since no use case reads them
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(Include.NON_NULL)
+public class VehicleAttributes {
+	private String licenseNumber;
+
+	public VehicleAttributes() {
+	}
+
+	@JsonProperty("license number")
+	public String getLicenseNumber() {
+		return licenseNumber;
+	}
+
+	@JsonProperty("license number")
+	public void setLicenseNumber(String licenseNumber) {
+		this.licenseNumber = licenseNumber;
+	}
+}
@@ -0,0 +1,95 @@
+package twins.logic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import twins.items.ItemBoundary;
+import twins.items.ItemSummary;
+import twins.logic.Exceptions.IllegalContinuationTokenException;
+import twins.operations.OperationBoundary;
+import twins.users.UserBoundary;
+
+// opaque token of keyset pagination, holds the sort keys of the last element of the previous page.
+// items and operations: createdTimestamp, id, space
+// users: username, email, space
+public class ContinuationToken {
+	public static final String HEADER = "X-Continuation-Token";
+
+	private static final String SEPARATOR = "\u001F";
+
+	private ContinuationToken() {
+	}
+
+	public static String of(ItemBoundary item) {
+		return encode(
+				String.valueOf(item.getCreatedTimestamp().getTime()),
+				item.getItemId().getId(),
+				item.getItemId().getSpace());
+	}
+
+	public static String of(ItemSummary item) {
+		return encode(
+				String.valueOf(item.getCreatedTimestamp().getTime()),
+				item.getItemId().getId(),
+				item.getItemId().getSpace());
+	}
+
+	public static String of(UserBoundary user) {
+		return encode(
+				user.getUsername(),
+				user.getUserId().getEmail(),
+				user.getUserId().getSpace());
+	}
+
+	public static String of(OperationBoundary operation) {
+		return encode(
+				String.valueOf(operation.getCreatedTimestamp().getTime()),
+				operation.getOperationId().getId(),
+				operation.getOperationId().getSpace());
+	}
+
+	// token of the last element of a listing, or null when there is nothing to continue from
+	public static String ofLast(List<?> page) {
+		if (page == null || page.isEmpty())
+			return null;
+
+		Object last = page.get(page.size() - 1);
+		if (last instanceof ItemBoundary)
+			return of((ItemBoundary) last);
+		if (last instanceof ItemSummary)
+			return of((ItemSummary) last);
+		if (last instanceof UserBoundary)
+			return of((UserBoundary) last);
+		if (last instanceof OperationBoundary)
+			return of((OperationBoundary) last);
+		return null;
+	}
+
+	public static String encode(String... keys) {
+		return Base64.getUrlEncoder()
+				.withoutPadding()
+				.encodeToString(String.join(SEPARATOR, keys).getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static String[] decode(String token, int numberOfKeys) {
+		String[] keys;
+		try {
+			keys = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+		} catch (Exception e) {
+			throw new IllegalContinuationTokenException("Illegal continuation token");
+		}
+
+		if (keys.length != numberOfKeys)
+			throw new IllegalContinuationTokenException("Illegal continuation token");
+		return keys;
+	}
+
+	public static long decodeTimestamp(String key) {
+		try {
+			return Long.parseLong(key);
+		} catch (NumberFormatException e) {
+			throw new IllegalContinuationTokenException("Illegal continuation token");
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package twins.logic.Exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class IllegalContinuationTokenException extends RuntimeException {
+
+	private static final long serialVersionUID = 2810429371180672416L;
+
+	public IllegalContinuationTokenException() {
+	}
+
+	public IllegalContinuationTokenException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public IllegalContinuationTokenException(String message) {
+		super(message);
+	}
+
+	public IllegalContinuationTokenException(Throwable cause) {
+		super(cause);
+	}
+}
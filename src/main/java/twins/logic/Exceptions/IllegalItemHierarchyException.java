@@ -0,0 +1,25 @@
+package twins.logic.Exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class IllegalItemHierarchyException extends RuntimeException {
+
+	private static final long serialVersionUID = -6034718920577312841L;
+
+	public IllegalItemHierarchyException() {
+	}
+
+	public IllegalItemHierarchyException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public IllegalItemHierarchyException(String message) {
+		super(message);
+	}
+
+	public IllegalItemHierarchyException(Throwable cause) {
+		super(cause);
+	}
+}
@@ -0,0 +1,25 @@
+package twins.logic.Exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.NOT_FOUND)
+public class OperationNotFoundException extends RuntimeException {
+
+	private static final long serialVersionUID = -6034192517823840551L;
+
+	public OperationNotFoundException() {
+	}
+
+	public OperationNotFoundException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public OperationNotFoundException(String message) {
+		super(message);
+	}
+
+	public OperationNotFoundException(Throwable cause) {
+		super(cause);
+	}
+}
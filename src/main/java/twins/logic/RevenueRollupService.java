@@ -0,0 +1,24 @@
+package twins.logic;
+
+import java.util.List;
+import java.util.Map;
+
+import twins.data.RevenueSummary;
+import twins.data.WorkerRevenue;
+import twins.items.ItemBoundary;
+
+public interface RevenueRollupService {
+
+	public void updateMaintenance(ItemBoundary before, ItemBoundary after);
+
+	public RevenueSummary getMonthlyRevenue(int year, int month);
+
+	public List<WorkerRevenue> getTopWorkers(int year, int month, int limit);
+
+	public boolean isRebuildNeeded();
+
+	public int rebuildRollups();
+
+	public Map<String, Object> checkRollups(int year, int month);
+
+}
@@ -1,22 +1,43 @@
 package twins.logic;
 
 
+import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import twins.items.ItemBoundary;
 import twins.items.ItemIdBoundary;
+import twins.items.ItemImportResult;
+import twins.items.ItemSummary;
+import twins.items.ItemTreeNode;
 
 public interface UpdatedItemsService extends ItemsService {
 
 	public void addChildToParent(String userSpace,String userEmail,String itemSpace, String itemId,ItemIdBoundary item);
+	public List<ItemBoundary> createChildren(String userSpace, String userEmail, String itemSpace, String itemId, List<ItemBoundary> children);
+	public List<ItemImportResult> importItems(String userSpace, String userEmail, InputStream items);
 	@Deprecated
 	public List<ItemBoundary> getAllChildren(String userSpace,String userEmail,String itemSpace, String itemId);
 	public List<ItemBoundary> getAllChildren(String userSpace,String userEmail,String itemSpace, String itemId, int size, int page);
 	@Deprecated
 	public List<ItemBoundary> getAllParents(String childSpace, String childId);
 	public List<ItemBoundary> getAllParents(String userSpace, String userEmail, String childSpace, String childId, int size, int page);
+	public List<ItemBoundary> getAllAncestors(String userSpace, String userEmail, String childSpace, String childId);
+	public boolean isHierarchyRebuildNeeded();
+	public int rebuildAncestorPaths();
+	public int rebuildChildrenCounts();
+	public ItemTreeNode getSubtree(String userSpace, String userEmail, String itemSpace, String itemId, int depth, boolean attributes);
 	public List<ItemBoundary> getAllItemsByTypeAndDate(String userSpace, String userEmail, String type, Date date, int size, int page);
 	public List<ItemBoundary> getAllItemsByTypeAndDateBetween(String type, Date startDate, Date endDate);
 	public List<ItemBoundary> getAllItemsByTypeAndActive(String type, boolean active, int size, int page);
+	public List<ItemSummary> getAllItemSummaries(String userSpace, String userEmail, int size, int page);
+	public List<ItemSummary> getAllChildrenSummaries(String userSpace, String userEmail, String itemSpace, String itemId, int size, int page);
+	public List<ItemSummary> getAllItemSummariesByTypeAndActive(String type, boolean active, int size, int page);
+	public List<ItemBoundary> getAllItemsAfter(String userSpace, String userEmail, String after, int size);
+	public List<ItemBoundary> getAllChildrenAfter(String userSpace, String userEmail, String itemSpace, String itemId, String after, int size);
+	public List<ItemBoundary> getAllItemsByTypeAndActiveAfter(String type, boolean active, String after, int size);
+	public void exportAllItems(String adminSpace, String adminEmail, Consumer<ItemBoundary> consumer);
+	public Map<String, Object> getAttributesStatistics(String adminSpace, String adminEmail);
 }
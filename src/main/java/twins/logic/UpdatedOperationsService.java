@@ -0,0 +1,23 @@
+package twins.logic;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import twins.operations.AsyncOperationBoundary;
+import twins.operations.OperationBoundary;
+
+public interface UpdatedOperationsService extends OperationsService {
+
+	public List<OperationBoundary> getAllOperationsAfter(String adminSpace, String adminEmail, String after, int size);
+
+	public void exportAllOperations(String adminSpace, String adminEmail, Consumer<OperationBoundary> consumer);
+
+	public AsyncOperationBoundary getAsyncOperation(String userSpace, String userEmail, String operationSpace, String operationId);
+
+	// the listener is called once when the operation is done or failed, the returned handle unregisters it
+	public Runnable onAsyncOperationFinished(String operationSpace, String operationId, Runnable listener);
+
+	// the token continuing the returned page, null when the use case of the operation does not read "after"
+	public String getContinuationToken(OperationBoundary operation, Object returnedValue);
+
+}
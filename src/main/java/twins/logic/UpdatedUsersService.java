@@ -1,7 +1,11 @@
 package twins.logic;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import twins.data.UserIdPK;
 import twins.data.UserRole;
 import twins.users.UserBoundary;
 
@@ -9,4 +13,14 @@ public interface UpdatedUsersService extends UsersService {
 
 	public List<UserBoundary> getAllUsersByRole(UserRole role, int size, int page);
 
+	public List<UserBoundary> getAllUsersAfter(String adminSpace, String adminEmail, String after, int size);
+
+	public List<UserBoundary> getAllUsersByRoleAfter(UserRole role, String after, int size);
+
+	public List<UserBoundary> getUsersByIds(Collection<UserIdPK> userIds);
+
+	public void exportAllUsers(String adminSpace, String adminEmail, Consumer<UserBoundary> consumer);
+
+	public Map<String, Object> getLoginCacheStatistics(String adminSpace, String adminEmail);
+
 }
@@ -0,0 +1,43 @@
+package twins.logic.initializers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import twins.logic.UpdatedItemsService;
+
+// backfill of ITEMS.ANCESTOR_PATH, DEPTH and the children counts for items created before the columns existed.
+// runs on its own when some item has no ancestor path, the descendants and subtree queries would not see it.
+// the rebuild_item_hierarchy profile rebuilds them on every startup
+@Component
+public class ItemHierarchyInitializer implements CommandLineRunner {
+
+	private UpdatedItemsService itemsService;
+	private Environment environment;
+
+	@Autowired
+	public void setItemsService(UpdatedItemsService itemsService) {
+		this.itemsService = itemsService;
+	}
+
+	@Autowired
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		if (!this.environment.acceptsProfiles(Profiles.of("rebuild_item_hierarchy"))
+				&& !this.itemsService.isHierarchyRebuildNeeded())
+			return;
+
+		int depth = this.itemsService.rebuildAncestorPaths();
+		System.err.println("Rebuilt the ancestor paths of the items, " + depth + " levels deep");
+
+		int parents = this.itemsService.rebuildChildrenCounts();
+		System.err.println("Recounted the children of " + parents + " items");
+	}
+
+}
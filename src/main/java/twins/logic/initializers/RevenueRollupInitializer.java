@@ -0,0 +1,50 @@
+package twins.logic.initializers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import twins.logic.RevenueRollupService;
+
+// backfill of REVENUE_ROLLUPS from ITEMS.
+// runs on its own when the rollups are empty and there are maintenances, e.g. on a database created before the table.
+// the rebuild_rollups profile rebuilds them on every startup, optionally followed by months to check, e.g. 2021-1 2021-2
+@Component
+public class RevenueRollupInitializer implements CommandLineRunner {
+
+	private RevenueRollupService revenueRollupService;
+	private Environment environment;
+
+	@Autowired
+	public void setRevenueRollupService(RevenueRollupService revenueRollupService) {
+		this.revenueRollupService = revenueRollupService;
+	}
+
+	@Autowired
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		if (!this.environment.acceptsProfiles(Profiles.of("rebuild_rollups"))
+				&& !this.revenueRollupService.isRebuildNeeded())
+			return;
+
+		int rows = this.revenueRollupService.rebuildRollups();
+		System.err.println("Rebuilt " + rows + " revenue rollups from the items");
+
+		for (String arg : args) {
+			if (!arg.matches("\\d{4}-\\d{1,2}"))
+				continue;
+
+			String[] yearAndMonth = arg.split("-");
+			System.err.println(this.revenueRollupService.checkRollups(
+					Integer.parseInt(yearAndMonth[0]),
+					Integer.parseInt(yearAndMonth[1])));
+		}
+	}
+
+}
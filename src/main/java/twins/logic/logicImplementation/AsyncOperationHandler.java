@@ -1,18 +1,28 @@
 package twins.logic.logicImplementation;
 
 
+import javax.jms.JMSException;
+import javax.jms.Message;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import twins.data.UserEntity;
+import twins.data.OperationIdPK;
+import twins.data.UserIdPK;
 import twins.data.UserRole;
 import twins.logic.UsersService;
-import twins.logic.logicImplementation.useCases.FixVehicleUseCase;
+import twins.logic.logicImplementation.useCases.UseCase;
+import twins.logic.logicImplementation.useCases.UseCaseDispatcher;
 import twins.operations.OperationBoundary;
+import twins.users.UserBoundary;
 import twins.users.UserId;
 
 @Component
@@ -20,13 +30,24 @@ public class AsyncOperationHandler {
 	private ObjectMapper jackson;
 	private EntityConverter entityConverter;
 	private UsersService usersService;
-	private FixVehicleUseCase fixVehicle;
+	private PrivilegeContext privilegeContext;
+	private CallerContext callerContext;
+	private UseCaseDispatcher useCaseDispatcher;
+	private AsyncOperationTracker asyncOperationTracker;
+	private int maxDeliveries;
 	
 	
 	private UserRole validOperationRole = UserRole.PLAYER;
 
 	public AsyncOperationHandler() {
 		this.jackson = new ObjectMapper();
+		this.maxDeliveries = 7;
+	}
+	
+	// deliveries of a message before the broker gives up on it, the first delivery and its redeliveries
+	@Value("${twins.async.max-deliveries:7}")
+	public void setMaxDeliveries(int maxDeliveries) {
+		this.maxDeliveries = maxDeliveries;
 	}
 
 	@Autowired
@@ -40,13 +61,35 @@ public class AsyncOperationHandler {
 	}
 	
 	@Autowired
-	public void setFixVehicle(FixVehicleUseCase fixVehicle) {
-		this.fixVehicle = fixVehicle;
+	public void setPrivilegeContext(PrivilegeContext privilegeContext) {
+		this.privilegeContext = privilegeContext;
+	}
+	
+	@Autowired
+	public void setCallerContext(CallerContext callerContext) {
+		this.callerContext = callerContext;
+	}
+	
+	// the results are written like the responses of the synchronous invocation
+	@Autowired
+	public void setJackson(ObjectMapper jackson) {
+		this.jackson = jackson;
+	}
+	
+	@Autowired
+	public void setUseCaseDispatcher(UseCaseDispatcher useCaseDispatcher) {
+		this.useCaseDispatcher = useCaseDispatcher;
 	}
 	
+	@Autowired
+	public void setAsyncOperationTracker(AsyncOperationTracker asyncOperationTracker) {
+		this.asyncOperationTracker = asyncOperationTracker;
+	}
+	
+	// concurrent consumers, the operations of the same item are kept in order by their message group (JMSXGroupID)
 	@Transactional
-	@JmsListener(destination = "asyncInbox")
-	public void handleJson(String json) {
+	@JmsListener(destination = "asyncInbox", concurrency = "${twins.async.concurrency:1-4}")
+	public void handleJson(String json, Message message) {
 		OperationBoundary boundary;
 		try {
 			boundary = this.jackson.readValue(json, OperationBoundary.class);
@@ -55,21 +98,62 @@ public class AsyncOperationHandler {
 		}
 		
 		UserId userId = boundary.getInvokedBy().getUserId();
-		UserEntity user = entityConverter.toEntity(usersService.login(userId.getSpace(), userId.getEmail()));
-		UserRole actualRole = user.getRole();
 		
-		user.setRole(validOperationRole);
-		usersService.updateUser(
-				userId.getSpace(),
-				userId.getEmail(),
-				entityConverter.toBoundary(user));
-		
-		this.fixVehicle.invoke(boundary);
+		// the status is final only once the transaction of the operation completed,
+		// a rolled back message is redelivered until its last delivery
+		String[] error = new String[1];
+		String[] result = new String[1];
+		if (boundary.getOperationId() != null) {
+			OperationIdPK operationId = new OperationIdPK(boundary.getOperationId().getSpace(), boundary.getOperationId().getId());
+			boolean lastDelivery = this.deliveryCountOf(message) >= this.maxDeliveries;
+			this.asyncOperationTracker.running(operationId);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					if (status == TransactionSynchronization.STATUS_COMMITTED)
+						asyncOperationTracker.done(operationId, result[0]);
+					else if (lastDelivery)
+						asyncOperationTracker.failed(operationId, error[0]);
+					else
+						asyncOperationTracker.retrying(operationId, error[0]);
+				}
+			});
+		}
 		
-		user.setRole(actualRole);
-		usersService.updateUser(
-				userId.getSpace(),
-				userId.getEmail(),
-				entityConverter.toBoundary(user));
+		// a message is handled like a request, the invoking user is resolved once
+		this.callerContext.begin();
+		try {
+			//	if user does not exits, exception will be thrown inside this method
+			UserBoundary user = usersService.login(userId.getSpace(), userId.getEmail());
+			UserRole actualRole = UserRole.valueOf(user.getRole());
+			UseCase operationCase = UseCase.valueOf(boundary.getOperationAttributes().get("operationName").toString());
+			
+			Object returnedValue = this.privilegeContext.runAs(
+					new UserIdPK(userId.getSpace(), userId.getEmail()),
+					validOperationRole,
+					() -> this.useCaseDispatcher.invoke(operationCase, boundary, actualRole));
+			
+			if (returnedValue != null)
+				result[0] = this.jackson.writeValueAsString(returnedValue);
+		} catch (JsonProcessingException e) {
+			error[0] = "Could not store the result of the operation";
+			throw new RuntimeException(error[0], e);
+		} catch (RuntimeException e) {
+			error[0] = e.getMessage();
+			throw e;
+		} finally {
+			this.callerContext.end();
+		}
+	}
+	
+	// a broker that does not count the deliveries gets a single one, its failure is final
+	private int deliveryCountOf(Message message) {
+		try {
+			if (message.propertyExists("JMSXDeliveryCount"))
+				return message.getIntProperty("JMSXDeliveryCount");
+		} catch (JMSException e) {
+			// the count is unknown
+		}
+		return this.maxDeliveries;
 	}
 }
@@ -0,0 +1,171 @@
+package twins.logic.logicImplementation;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import twins.data.AsyncOperationEntity;
+import twins.data.AsyncOperationStatus;
+import twins.data.OperationIdPK;
+import twins.data.UserIdPK;
+import twins.data.dao.AsyncOperationsDao;
+
+// status records of the operations invoked asynchronously.
+// every change is committed in its own transaction, so it is visible while the operation itself is still running
+// and survives its rollback. listeners waiting on an operation are called once it is done or finally failed,
+// a failed attempt that is redelivered is only RETRYING.
+// results are kept up to twins.async.result.max-length characters, finished records are purged after the retention time
+@Component
+public class AsyncOperationTracker {
+	private static final Logger log = LoggerFactory.getLogger(AsyncOperationTracker.class);
+
+	private AsyncOperationsDao asyncOperationsDao;
+	private TransactionTemplate newTransaction;
+	private Map<OperationIdPK, Set<Runnable>> listeners;
+	private int maxResultLength;
+	private long retentionMillis;
+
+	public AsyncOperationTracker() {
+		this.listeners = new ConcurrentHashMap<>();
+		this.maxResultLength = 1000000;
+		this.retentionMillis = 86400000;
+	}
+
+	@Value("${twins.async.result.max-length:1000000}")
+	public void setMaxResultLength(int maxResultLength) {
+		this.maxResultLength = maxResultLength;
+	}
+
+	@Value("${twins.async.result.retention-millis:86400000}")
+	public void setRetentionMillis(long retentionMillis) {
+		this.retentionMillis = retentionMillis;
+	}
+
+	@Autowired
+	public void setAsyncOperationsDao(AsyncOperationsDao asyncOperationsDao) {
+		this.asyncOperationsDao = asyncOperationsDao;
+	}
+
+	@Autowired
+	public void setTransactionManager(PlatformTransactionManager transactionManager) {
+		this.newTransaction = new TransactionTemplate(transactionManager);
+		this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	public void queued(OperationIdPK operationId, UserIdPK invokedBy) {
+		this.update(operationId, status -> {
+			status.setUserSpace(invokedBy.getSpace());
+			status.setUserEmail(invokedBy.getEmail());
+			status.setStatus(AsyncOperationStatus.QUEUED);
+			status.setQueuedTimestamp(new Date());
+		});
+	}
+
+	// a redelivered message starts over
+	public void running(OperationIdPK operationId) {
+		this.update(operationId, status -> {
+			status.setStatus(AsyncOperationStatus.RUNNING);
+			status.setStartedTimestamp(new Date());
+			status.setFinishedTimestamp(null);
+			status.setError(null);
+			status.setResult(null);
+		});
+	}
+
+	// result is the JSON of the returned value, null when the use case returns nothing
+	public void done(OperationIdPK operationId, String result) {
+		boolean stored = result == null || result.length() <= this.maxResultLength;
+		this.update(operationId, status -> {
+			status.setStatus(AsyncOperationStatus.DONE);
+			status.setFinishedTimestamp(new Date());
+			if (stored) {
+				status.setResult(result);
+			} else {
+				status.setResult(null);
+				status.setError("The result is longer than " + this.maxResultLength + " characters and was not stored");
+			}
+		});
+		this.notifyListeners(operationId);
+	}
+
+	public void failed(OperationIdPK operationId, String error) {
+		String message = error == null ? "Operation failed" : error;
+		if (message.length() > AsyncOperationEntity.MAX_ERROR_LENGTH)
+			message = message.substring(0, AsyncOperationEntity.MAX_ERROR_LENGTH);
+
+		String stored = message;
+		this.update(operationId, status -> {
+			status.setStatus(AsyncOperationStatus.FAILED);
+			status.setFinishedTimestamp(new Date());
+			status.setError(stored);
+		});
+		this.notifyListeners(operationId);
+	}
+
+	// the error of the last attempt is kept until the redelivered message runs, the operation is not finished
+	public void retrying(OperationIdPK operationId, String error) {
+		String message = error == null ? "Operation failed" : error;
+		if (message.length() > AsyncOperationEntity.MAX_ERROR_LENGTH)
+			message = message.substring(0, AsyncOperationEntity.MAX_ERROR_LENGTH);
+
+		String stored = message;
+		this.update(operationId, status -> {
+			status.setStatus(AsyncOperationStatus.RETRYING);
+			status.setError(stored);
+		});
+	}
+
+	@Scheduled(fixedDelayString = "${twins.async.purge-interval-millis:600000}")
+	public void purgeFinished() {
+		Date finishedBefore = new Date(System.currentTimeMillis() - this.retentionMillis);
+		Integer purged = this.newTransaction.execute(transaction -> this.asyncOperationsDao.deleteAllFinishedBefore(finishedBefore));
+		if (purged != null && purged > 0)
+			log.debug("Purged {} finished async operations", purged);
+	}
+
+	public Optional<AsyncOperationEntity> find(OperationIdPK operationId) {
+		return this.asyncOperationsDao.findById(operationId);
+	}
+
+	public void addListener(OperationIdPK operationId, Runnable listener) {
+		this.listeners.computeIfAbsent(operationId, id -> ConcurrentHashMap.newKeySet()).add(listener);
+	}
+
+	public void removeListener(OperationIdPK operationId, Runnable listener) {
+		this.listeners.computeIfPresent(operationId, (id, waiting) -> {
+			waiting.remove(listener);
+			return waiting.isEmpty() ? null : waiting;
+		});
+	}
+
+	private void update(OperationIdPK operationId, Consumer<AsyncOperationEntity> change) {
+		this.newTransaction.execute(transaction -> {
+			AsyncOperationEntity status = this.asyncOperationsDao.findById(operationId).orElseGet(() -> {
+				AsyncOperationEntity rv = new AsyncOperationEntity();
+				rv.setOperationIdPK(operationId);
+				return rv;
+			});
+			change.accept(status);
+			return this.asyncOperationsDao.save(status);
+		});
+	}
+
+	private void notifyListeners(OperationIdPK operationId) {
+		Set<Runnable> waiting = this.listeners.remove(operationId);
+		if (waiting != null)
+			waiting.forEach(Runnable::run);
+	}
+}
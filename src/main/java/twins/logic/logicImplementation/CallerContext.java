@@ -0,0 +1,88 @@
+package twins.logic.logicImplementation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import twins.data.UserIdPK;
+import twins.users.UserBoundary;
+
+// the callers resolved during the current request.
+// a scope is opened at the controller boundary (or by the JMS listener), the first login() of a user
+// binds the resolved principal and every later login() of the same user in that request reuses it.
+// the principal is kept per thread instead of being passed down explicitly, so the service
+// interfaces the controllers and the use cases call stay unchanged
+@Component
+public class CallerContext {
+
+	private ThreadLocal<RequestScope> scopes;
+
+	public CallerContext() {
+		this.scopes = new ThreadLocal<>();
+	}
+
+	public void begin() {
+		this.scopes.set(new RequestScope());
+	}
+
+	// closes the scope of the current request and returns the number of user lookups it made
+	public int end() {
+		RequestScope scope = this.scopes.get();
+		this.scopes.remove();
+		if (scope == null)
+			return 0;
+		return scope.lookups;
+	}
+
+	public boolean isActive() {
+		return this.scopes.get() != null;
+	}
+
+	public UserBoundary getResolvedUser(UserIdPK userId) {
+		RequestScope scope = this.scopes.get();
+		if (scope == null)
+			return null;
+
+		UserBoundary user = scope.principals.get(userId);
+		if (user == null)
+			return null;
+		return new UserBoundary(user);
+	}
+
+	public void setResolvedUser(UserIdPK userId, UserBoundary user) {
+		RequestScope scope = this.scopes.get();
+		if (scope != null)
+			scope.principals.put(userId, new UserBoundary(user));
+	}
+
+	public void evict(UserIdPK userId) {
+		RequestScope scope = this.scopes.get();
+		if (scope != null)
+			scope.principals.remove(userId);
+	}
+
+	public void evictAll() {
+		RequestScope scope = this.scopes.get();
+		if (scope != null)
+			scope.principals.clear();
+	}
+
+	public void countLookup() {
+		RequestScope scope = this.scopes.get();
+		if (scope != null)
+			scope.lookups++;
+	}
+
+	public int getLookupCount() {
+		RequestScope scope = this.scopes.get();
+		if (scope == null)
+			return 0;
+		return scope.lookups;
+	}
+
+	private static class RequestScope {
+		private Map<UserIdPK, UserBoundary> principals = new HashMap<>();
+		private int lookups;
+	}
+}
@@ -2,10 +2,12 @@ package twins.logic.logicImplementation;
 
 import java.util.Map;
 
+import twins.data.AsyncOperationEntity;
 import twins.data.ItemEntity;
 import twins.data.OperationEntity;
 import twins.data.UserEntity;
 import twins.items.ItemBoundary;
+import twins.operations.AsyncOperationBoundary;
 import twins.operations.OperationBoundary;
 import twins.users.UserBoundary;
 
@@ -15,6 +17,8 @@ public interface EntityConverter {
 	public OperationBoundary toBoundary(OperationEntity oe);
 	public OperationEntity toEntity(OperationBoundary ob);
 	
+	public AsyncOperationBoundary toBoundary(AsyncOperationEntity ae);
+	
 	public ItemBoundary toBoundary(ItemEntity oe);
 	public ItemEntity toEntity(ItemBoundary ob);
 	
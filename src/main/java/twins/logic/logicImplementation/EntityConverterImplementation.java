@@ -2,10 +2,13 @@ package twins.logic.logicImplementation;
 
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import twins.data.AsyncOperationEntity;
+import twins.data.AttributesStorage;
 import twins.data.ItemEntity;
 import twins.data.ItemIdPK;
 import twins.data.OperationEntity;
@@ -17,6 +20,7 @@ import twins.items.Item;
 import twins.items.ItemBoundary;
 import twins.items.ItemIdBoundary;
 import twins.items.Location;
+import twins.operations.AsyncOperationBoundary;
 import twins.operations.OperationBoundary;
 import twins.operations.OperationId;
 import twins.users.User;
@@ -26,10 +30,16 @@ import twins.users.UserId;
 @Component
 public class EntityConverterImplementation implements EntityConverter {
 	private ObjectMapper jackson;
+	private AttributesStorage attributesStorage;
 	
 	public EntityConverterImplementation() {
 		this.jackson = new ObjectMapper();
 	}
+
+	@Autowired
+	public void setAttributesStorage(AttributesStorage attributesStorage) {
+		this.attributesStorage = attributesStorage;
+	}
 	
 	@Override
 	public OperationBoundary toBoundary(OperationEntity input) {
@@ -50,7 +60,8 @@ public class EntityConverterImplementation implements EntityConverter {
 
 		rv.setCreatedTimestamp(input.getCreatedTimestamp());
 
-		rv.setOperationAttributes(this.fromJsonToMap(input.getOperationAttributes()));
+		// parsed only if the operation attributes are read
+		rv.setOperationAttributesJson(this.attributesStorage.read(input));
 
 		return rv;
 	}
@@ -89,12 +100,31 @@ public class EntityConverterImplementation implements EntityConverter {
 		if (input.getCreatedTimestamp() != null)
 			rv.setCreatedTimestamp(input.getCreatedTimestamp());
 
-		if (input.getOperationAttributes() != null)
-			rv.setOperationAttributes(this.fromMapToJson(input.getOperationAttributes()));
+		// stored JSON of a boundary read from the database is copied without parsing it
+		if (input.getOperationAttributesJson() != null)
+			this.attributesStorage.write(rv, input.getOperationAttributesJson());
 
 		return rv;
 	}
 
+	@Override
+	public AsyncOperationBoundary toBoundary(AsyncOperationEntity input) {
+		AsyncOperationBoundary rv = new AsyncOperationBoundary();
+		
+		OperationIdPK idPK = input.getOperationIdPK();
+		rv.setOperationId(new OperationId(idPK.getOperationSpace(), idPK.getOperationId()));
+		
+		if (input.getStatus() != null)
+			rv.setStatus(input.getStatus().name());
+		rv.setQueuedTimestamp(input.getQueuedTimestamp());
+		rv.setStartedTimestamp(input.getStartedTimestamp());
+		rv.setFinishedTimestamp(input.getFinishedTimestamp());
+		rv.setError(input.getError());
+		rv.setResult(input.getResult());
+		
+		return rv;
+	}
+
 	@Override
 	public ItemBoundary toBoundary(ItemEntity input) {
 		ItemBoundary rv = new ItemBoundary();
@@ -112,7 +142,13 @@ public class EntityConverterImplementation implements EntityConverter {
 		
 		Location location = new Location(input.getLocationLat(),input.getLocationLng());
 		rv.setLocation(location);
-		rv.setItemAttributes(this.fromJsonToMap(input.getItemAttributes()));
+		// parsed only if the item attributes are read
+		rv.setItemAttributesJson(this.attributesStorage.read(input));
+		
+		// children counts are maintained by the service only, toEntity never reads them.
+		// parsed only if the counts by type are read
+		rv.setChildrenCount(input.getChildrenCount());
+		rv.setChildrenCountByTypeJson(input.getChildrenCountByType());
 
 		return rv;
 	}
@@ -149,8 +185,9 @@ public class EntityConverterImplementation implements EntityConverter {
 			rv.setLocationLng(input.getLocation().getLng());
 		}
 
-		if (input.getItemAttributes() != null)
-			rv.setItemAttributes(this.fromMapToJson(input.getItemAttributes()));
+		// stored JSON of a boundary read from the database is copied without parsing it
+		if (input.getItemAttributesJson() != null)
+			this.attributesStorage.write(rv, input.getItemAttributesJson());
 
 		return rv;
 	}
@@ -0,0 +1,63 @@
+package twins.logic.logicImplementation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import twins.data.UserIdPK;
+import twins.data.UserRole;
+
+// in-memory role elevation for the current thread.
+// while an elevation is active, login() reports the elevated role for that user instead of the stored one,
+// so operations get the permissions they need without writing to the USERS table
+@Component
+public class PrivilegeContext {
+
+	private ThreadLocal<Map<UserIdPK, Deque<UserRole>>> elevations;
+
+	public PrivilegeContext() {
+		this.elevations = new ThreadLocal<>();
+	}
+
+	public <T> T runAs(UserIdPK userId, UserRole role, Supplier<T> action) {
+		Map<UserIdPK, Deque<UserRole>> current = this.elevations.get();
+		if (current == null) {
+			current = new HashMap<>();
+			this.elevations.set(current);
+		}
+		current.computeIfAbsent(userId, id -> new ArrayDeque<>()).push(role);
+		try {
+			return action.get();
+		} finally {
+			Deque<UserRole> roles = current.get(userId);
+			roles.pop();
+			if (roles.isEmpty())
+				current.remove(userId);
+			if (current.isEmpty())
+				this.elevations.remove();
+		}
+	}
+
+	public void runAs(UserIdPK userId, UserRole role, Runnable action) {
+		this.runAs(userId, role, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	// returns the innermost elevated role of the user, or null when the user is not elevated
+	public UserRole getElevatedRole(UserIdPK userId) {
+		Map<UserIdPK, Deque<UserRole>> current = this.elevations.get();
+		if (current == null)
+			return null;
+
+		Deque<UserRole> roles = current.get(userId);
+		if (roles == null || roles.isEmpty())
+			return null;
+		return roles.peek();
+	}
+}
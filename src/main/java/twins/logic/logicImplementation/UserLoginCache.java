@@ -0,0 +1,156 @@
+package twins.logic.logicImplementation;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import twins.data.UserIdPK;
+import twins.users.UserBoundary;
+
+// bounded LRU cache of logged in users, entries expire after a fixed time to live.
+// boundaries are copied in and out because callers change the returned role freely.
+// every invalidation starts a new generation, and a put is ignored when its row was read
+// in an older one, so a login that read the row before a commit can not re-cache it after
+@Component
+public class UserLoginCache {
+
+	private int maxSize;
+	private long timeToLiveMillis;
+	private LinkedHashMap<UserIdPK, CachedUser> users;
+	private AtomicLong hits;
+	private AtomicLong misses;
+	private AtomicLong evictions;
+	private AtomicLong stalePuts;
+	private long generation;
+
+	public UserLoginCache() {
+		this.maxSize = 1000;
+		this.timeToLiveMillis = 60000;
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+		this.stalePuts = new AtomicLong();
+		this.generation = 0;
+
+		// access order -> the eldest entry is the least recently used one
+		this.users = new LinkedHashMap<UserIdPK, CachedUser>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UserIdPK, CachedUser> eldest) {
+				if (size() > maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	@Value("${twins.users.cache.size:1000}")
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	@Value("${twins.users.cache.ttl-millis:60000}")
+	public void setTimeToLiveMillis(long timeToLiveMillis) {
+		this.timeToLiveMillis = timeToLiveMillis;
+	}
+
+	public UserBoundary get(UserIdPK userId) {
+		synchronized (this.users) {
+			CachedUser cached = this.users.get(userId);
+			if (cached == null) {
+				this.misses.incrementAndGet();
+				return null;
+			}
+
+			if (cached.expiresAt < System.currentTimeMillis()) {
+				this.users.remove(userId);
+				this.evictions.incrementAndGet();
+				this.misses.incrementAndGet();
+				return null;
+			}
+
+			this.hits.incrementAndGet();
+			return new UserBoundary(cached.user);
+		}
+	}
+
+	// to be read before the row is, and handed back to put with it
+	public long getGeneration() {
+		synchronized (this.users) {
+			return this.generation;
+		}
+	}
+
+	public void put(UserIdPK userId, UserBoundary user, long generation) {
+		if (this.maxSize <= 0)
+			return;
+
+		synchronized (this.users) {
+			if (generation != this.generation) {
+				this.stalePuts.incrementAndGet();
+				return;
+			}
+			this.users.put(userId, new CachedUser(new UserBoundary(user), System.currentTimeMillis() + this.timeToLiveMillis));
+		}
+	}
+
+	public void invalidate(UserIdPK userId) {
+		synchronized (this.users) {
+			this.generation++;
+			this.users.remove(userId);
+		}
+	}
+
+	public void invalidateAll() {
+		synchronized (this.users) {
+			this.generation++;
+			this.users.clear();
+		}
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	public long getStalePuts() {
+		return stalePuts.get();
+	}
+
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new HashMap<>();
+		synchronized (this.users) {
+			statistics.put("size", this.users.size());
+		}
+		statistics.put("maxSize", this.maxSize);
+		statistics.put("hits", getHits());
+		statistics.put("misses", getMisses());
+		statistics.put("evictions", getEvictions());
+		statistics.put("stalePuts", getStalePuts());
+		return statistics;
+	}
+
+	private static class CachedUser {
+		private UserBoundary user;
+		private long expiresAt;
+
+		public CachedUser(UserBoundary user, long expiresAt) {
+			this.user = user;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package twins.logic.logicImplementation.jpa;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import twins.data.AttributesStorage;
+import twins.data.ItemEntity;
+import twins.data.OperationEntity;
+import twins.data.dao.ItemsDao;
+import twins.data.dao.OperationsDao;
+
+// rewrites the text attributes of existing rows in the binary or compressed format, in the background after startup.
+// runs only with twins.attributes.migrate=true and binary storage or compression, one transaction per batch.
+// a batch is read with SELECT ... FOR UPDATE, an item changed meanwhile is migrated with its new attributes
+@Component
+public class AttributesMigrationJob {
+	private static final Logger log = LoggerFactory.getLogger(AttributesMigrationJob.class);
+
+	private ItemsDao itemsDao;
+	private OperationsDao operationsDao;
+	private AttributesStorage attributesStorage;
+	private TransactionTemplate transactionTemplate;
+	private boolean enabled;
+	private int batchSize;
+
+	@Autowired
+	public void setItemsDao(ItemsDao itemsDao) {
+		this.itemsDao = itemsDao;
+	}
+
+	@Autowired
+	public void setOperationsDao(OperationsDao operationsDao) {
+		this.operationsDao = operationsDao;
+	}
+
+	@Autowired
+	public void setAttributesStorage(AttributesStorage attributesStorage) {
+		this.attributesStorage = attributesStorage;
+	}
+
+	@Autowired
+	public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	@Value("${twins.attributes.migrate:false}")
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Value("${twins.attributes.migrate.batch-size:500}")
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (!this.enabled || !(this.attributesStorage.isBinary() || this.attributesStorage.isCompressing()))
+			return;
+
+		Thread thread = new Thread(this::migrate, "attributes-migration");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public void migrate() {
+		try {
+			log.info("Migrated the attributes of {} items", this.migrateItems());
+			log.info("Migrated the attributes of {} operations", this.migrateOperations());
+			log.info("Attributes storage statistics: {}", this.attributesStorage.getStatistics());
+		} catch (Exception e) {
+			log.warn("The attributes migration stopped, it resumes on the next start", e);
+		}
+	}
+
+	private int migrateItems() {
+		int total = 0;
+		String[] after = { "", "" };
+		while (true) {
+			Integer migrated = this.transactionTemplate.execute(status -> {
+				List<ItemEntity> batch = this.itemsDao.findAllWithTextAttributesAfter(
+						after[0], after[1], PageRequest.of(0, this.batchSize));
+				for (ItemEntity entity : batch)
+					this.attributesStorage.write(entity, entity.getItemAttributes());
+
+				if (!batch.isEmpty()) {
+					ItemEntity last = batch.get(batch.size() - 1);
+					after[0] = last.getItemIdPK().getId();
+					after[1] = last.getItemIdPK().getSpace();
+				}
+				return batch.size();
+			});
+			if (migrated == 0)
+				return total;
+			total += migrated;
+		}
+	}
+
+	private int migrateOperations() {
+		int total = 0;
+		String[] after = { "", "" };
+		while (true) {
+			Integer migrated = this.transactionTemplate.execute(status -> {
+				List<OperationEntity> batch = this.operationsDao.findAllWithTextAttributesAfter(
+						after[0], after[1], PageRequest.of(0, this.batchSize));
+				for (OperationEntity entity : batch)
+					this.attributesStorage.write(entity, entity.getOperationAttributes());
+
+				if (!batch.isEmpty()) {
+					OperationEntity last = batch.get(batch.size() - 1);
+					after[0] = last.getOperationIdPK().getOperationId();
+					after[1] = last.getOperationIdPK().getOperationSpace();
+				}
+				return batch.size();
+			});
+			if (migrated == 0)
+				return total;
+			total += migrated;
+		}
+	}
+}
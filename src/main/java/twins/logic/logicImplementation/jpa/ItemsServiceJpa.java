@@ -1,11 +1,21 @@
 package twins.logic.logicImplementation.jpa;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,18 +23,34 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
+import twins.data.AncestorPath;
+import twins.data.AttributesStorage;
 import twins.data.ItemEntity;
 import twins.data.ItemIdPK;
+import twins.data.ItemTypeCount;
 import twins.data.UserEntity;
 import twins.data.UserIdPK;
 import twins.data.UserRole;
 import twins.data.dao.ItemsDao;
+import twins.data.dao.RevenueRollupsDao;
 import twins.items.ItemBoundary;
 import twins.items.ItemIdBoundary;
+import twins.items.ItemImportResult;
+import twins.items.ItemSummary;
+import twins.items.ItemTreeNode;
+import twins.items.attributes.AttributeSchemas;
+import twins.logic.ContinuationToken;
+import twins.logic.RevenueRollupService;
 import twins.logic.UpdatedItemsService;
 import twins.logic.UsersService;
 import twins.logic.Exceptions.EmptyFieldsException;
+import twins.logic.Exceptions.IllegalItemHierarchyException;
 import twins.logic.Exceptions.ItemNotFoundException;
 import twins.logic.Exceptions.UserAccessDeniedException;
 import twins.logic.logicImplementation.EntityConverter;
@@ -33,21 +59,70 @@ import twins.logic.logicImplementation.Validator;
 @Service
 public class ItemsServiceJpa implements UpdatedItemsService {
 	private ItemsDao itemsDao;
+	private RevenueRollupsDao revenueRollupsDao;
+	private RevenueRollupService revenueRollupService;
 	private UsersService usersService;
 	private EntityConverter entityConverter;
 	private Validator validator;
+	private EntityManager entityManager;
 	private String springApplicatioName;
+	private int batchSize;
+	private int importBatchSize;
+	private TransactionTemplate transactionTemplate;
+	private ObjectReader itemReader;
+	private AttributeSchemas attributeSchemas;
+	private AttributesStorage attributesStorage;
 
 	@Value("${spring.application.name:defaultName}")
 	public void setSpringApplicatioName(String springApplicatioName) {
 		this.springApplicatioName = springApplicatioName;
 	}
 
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	@Value("${twins.items.import.batch-size:500}")
+	public void setImportBatchSize(int importBatchSize) {
+		this.importBatchSize = importBatchSize;
+	}
+
+	@Autowired
+	public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	@Autowired
+	public void setJackson(ObjectMapper jackson) {
+		this.itemReader = jackson.readerFor(ItemBoundary.class);
+	}
+
+	@Autowired
+	public void setAttributeSchemas(AttributeSchemas attributeSchemas) {
+		this.attributeSchemas = attributeSchemas;
+	}
+
+	@Autowired
+	public void setAttributesStorage(AttributesStorage attributesStorage) {
+		this.attributesStorage = attributesStorage;
+	}
+
 	@Autowired
 	public void setItemsDao(ItemsDao itemsDao) {
 		this.itemsDao = itemsDao;
 	}
 
+	@Autowired
+	public void setRevenueRollupsDao(RevenueRollupsDao revenueRollupsDao) {
+		this.revenueRollupsDao = revenueRollupsDao;
+	}
+
+	@Autowired
+	public void setRevenueRollupService(RevenueRollupService revenueRollupService) {
+		this.revenueRollupService = revenueRollupService;
+	}
+
 	@Autowired
 	public void setUsersService(UsersService usersService) {
 		this.usersService = usersService;
@@ -62,6 +137,11 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 	public void setValidator(Validator validator) {
 		this.validator = validator;
 	}
+
+	@PersistenceContext
+	public void setEntityManager(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
 	
 	
 	@Override
@@ -82,15 +162,20 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 			throw new EmptyFieldsException("User space must be specified");
 		if (!validator.isValidItem(item))
 			throw new EmptyFieldsException("Item has illegal attributes");
+		this.attributeSchemas.validate(item.getType(), item.getItemAttributesJson());
 
 		ItemEntity entity = this.entityConverter.toEntity(item);
 		entity.setUserEmail(userId.getEmail());
 		entity.setUserSpace(userId.getSpace());
 		entity.setCreatedTimestamp(new Date());
 		entity.setItemIdPK(new ItemIdPK(springApplicatioName, UUID.randomUUID().toString()));
+		entity.placeAt(AncestorPath.ROOT);
+		this.noChildren(entity);
 		this.itemsDao.save(entity);
 
-		return this.entityConverter.toBoundary(entity);
+		ItemBoundary rv = this.entityConverter.toBoundary(entity);
+		this.revenueRollupService.updateMaintenance(null, rv);
+		return rv;
 	}
 
 	@Override
@@ -104,14 +189,18 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 		if (validator.isUserRole(user, UserRole.PLAYER))
 			throw new UserAccessDeniedException("User defined as `Player` can not perform this action");
 
+		// the row stays locked until the revenue rollups are moved from the old price and worker to the new ones
 		ItemIdPK id = new ItemIdPK(itemSpace, itemId);
-		Optional<ItemEntity> existingOptional = this.itemsDao.findById(id);
+		Optional<ItemEntity> existingOptional = this.itemsDao.findByIdForUpdate(id);
 		if (existingOptional.isPresent()) {
 			boolean dirty = false;
 
 			ItemEntity existing = existingOptional.get();
+			ItemBoundary before = this.entityConverter.toBoundary(existing);
 
+			boolean retyped = false;
 			if (update.getType() != null && !update.getType().isEmpty()) {
+				retyped = !update.getType().equals(existing.getType());
 				existing.setType(update.getType());
 				dirty = true;
 			}
@@ -132,8 +221,14 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 				dirty = true;
 			}
 
-			if (update.getItemAttributes() != null) {
-				existing.setItemAttributes(this.entityConverter.fromMapToJson(update.getItemAttributes()));
+			// a new type is validated against its schema and may be stored in another format
+			String attributes = update.getItemAttributesJson();
+			if (attributes == null && retyped)
+				attributes = this.attributesStorage.read(existing);
+
+			if (attributes != null) {
+				this.attributeSchemas.validate(existing.getType(), attributes);
+				this.attributesStorage.write(existing, attributes);
 				dirty = true;
 			}
 
@@ -144,6 +239,7 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 			}
 
 			ItemBoundary rv = this.entityConverter.toBoundary(existing);
+			this.revenueRollupService.updateMaintenance(before, rv);
 			return rv;
 
 		} else {
@@ -171,17 +267,15 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 		//		if user does not exits, exception will be thrown inside this method
 		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
 		
-		//	if user defined as player, filter out all the non-active items
+		//	if user defined as player, the page holds only active items
 		if (validator.isUserRole(user, UserRole.PLAYER)) {
-			return this.itemsDao.findAll(PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK"))
-					.getContent()
+			return this.itemsDao.findAllByActive(true, PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK.id", "itemIdPK.space"))
 					.stream()
-					.filter(item -> item.isActive().booleanValue())		//	filter out all items with active=false
 					.map(this.entityConverter::toBoundary)
 					.collect(Collectors.toList());
 		}
 		
-		return this.itemsDao.findAll(PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK"))
+		return this.itemsDao.findAll(PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK.id", "itemIdPK.space"))
 						.getContent()
 						.stream()
 						.map(this.entityConverter::toBoundary)
@@ -197,13 +291,12 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
 		
 		ItemIdPK id = new ItemIdPK(itemSpace, itemId);
-		Optional<ItemEntity> existingOptional = this.itemsDao.findById(id);
+		//	non-active items do not exist for player users
+		Optional<ItemEntity> existingOptional = validator.isUserRole(user, UserRole.PLAYER)
+				? this.itemsDao.findByItemIdPKAndActive(id, true)
+				: this.itemsDao.findById(id);
 		if (existingOptional.isPresent()) {
 			ItemEntity existing = existingOptional.get();
-			//	non-active items do not exist for player users
-			if (validator.isUserRole(user, UserRole.PLAYER) && !existing.isActive())
-				throw new ItemNotFoundException("could not find item by userSpace/userEmail/itemSpace/itemId: " + userSpace + "/"
-						+ userEmail + "/" + itemSpace + "/" + itemId);
 			
 			ItemBoundary rv = this.entityConverter.toBoundary(existing);
 			return rv;
@@ -227,6 +320,8 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 			throw new UserAccessDeniedException("User's role is not admin");
 
 		this.itemsDao.deleteAll();
+		// the rollups are computed from the deleted maintenances
+		this.revenueRollupsDao.deleteAllRollups();
 	}
 
 	@Override
@@ -239,17 +334,222 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 		this.usersService.login(userId.getSpace(), userId.getEmail());
 
 		ItemIdPK id = new ItemIdPK(itemSpace, itemId);
-		ItemEntity parent = this.itemsDao.findById(id).orElseThrow(
+		ItemEntity parent = this.itemsDao.findByIdForUpdate(id).orElseThrow(
 				() -> new UserAccessDeniedException("could not find parent item by space:" + itemSpace + " id:" + itemId));
 		
 		ItemIdPK inputChildId = new ItemIdPK(item.getSpace(), item.getId());
-		ItemEntity child = this.itemsDao.findById(inputChildId).orElseThrow(() -> new ItemNotFoundException(
+		ItemEntity child = this.itemsDao.findByIdForUpdate(inputChildId).orElseThrow(() -> new ItemNotFoundException(
 				"could not find child item by space:" + inputChildId.getSpace() + " id:" + inputChildId.getId()));
 
-		parent.addItem(child);
+		String parentPath = this.ancestorPathOf(parent);
+		if (inputChildId.equals(id) || AncestorPath.ancestors(parentPath).contains(inputChildId))
+			throw new IllegalItemHierarchyException("An item can not be attached under itself or one of its descendants");
+
+		String oldChildrenPath = child.getAncestorPath() == null
+				? null
+				: AncestorPath.childPath(child.getAncestorPath(), inputChildId);
+		int oldDepth = child.getAncestorPath() == null ? 0 : AncestorPath.depth(child.getAncestorPath());
+
+		// the counts of both parents change under their row locks
+		ItemEntity oldParent = child.getParent();
+		if (oldParent != null && oldParent.getItemIdPK().equals(id))
+			return;
+		if (oldParent != null)
+			this.countChildren(this.itemsDao.findByIdForUpdate(oldParent.getItemIdPK()).get(), child.getType(), -1);
+		this.countChildren(parent, child.getType(), 1);
+
+		// only the child row changes, the children of the parent are never loaded.
+		// the child is managed, its update is flushed on commit
+		child.setParent(parent);
+		child.placeAt(AncestorPath.childPath(parentPath, id));
+
+		// the whole subtree of the child moves with it
+		if (oldChildrenPath != null)
+			this.itemsDao.moveDescendants(
+					AncestorPath.startsWith(oldChildrenPath),
+					oldChildrenPath.length(),
+					AncestorPath.childPath(child.getAncestorPath(), inputChildId),
+					child.getDepth() - oldDepth);
+	}
 
-		this.itemsDao.save(parent);
-		this.itemsDao.save(child);
+	private void noChildren(ItemEntity item) {
+		item.setChildrenCount(0);
+		item.setChildrenCountByType("{}");
+	}
+
+	// changes the children counts of a locked parent.
+	// the counts of items created before they existed are computed from their children the first time
+	private void countChildren(ItemEntity parent, String type, int delta) {
+		Map<String, Object> countByType = new HashMap<>();
+		if (parent.getChildrenCount() == null || parent.getChildrenCountByType() == null) {
+			int total = 0;
+			for (ItemTypeCount count : this.itemsDao.countChildrenByType(parent.getItemIdPK())) {
+				countByType.put(count.getType(), count.getTotal().intValue());
+				total += count.getTotal().intValue();
+			}
+			parent.setChildrenCount(total);
+		} else {
+			countByType.putAll(this.entityConverter.fromJsonToMap(parent.getChildrenCountByType()));
+		}
+
+		int count = ((Number) countByType.getOrDefault(type, 0)).intValue() + delta;
+		if (count > 0)
+			countByType.put(type, count);
+		else
+			countByType.remove(type);
+
+		parent.setChildrenCount(Math.max(0, parent.getChildrenCount() + delta));
+		parent.setChildrenCountByType(this.entityConverter.fromMapToJson(countByType));
+	}
+
+	// items created before the ancestor path existed get it from their parents the first time it is needed
+	private String ancestorPathOf(ItemEntity item) {
+		if (item.getAncestorPath() == null) {
+			ItemEntity parent = item.getParent();
+			item.placeAt(parent == null
+					? AncestorPath.ROOT
+					: AncestorPath.childPath(this.ancestorPathOf(parent), parent.getItemIdPK()));
+		}
+		return item.getAncestorPath();
+	}
+
+	@Override
+	@Transactional(readOnly = false)
+	public List<ItemBoundary> createChildren(String userSpace, String userEmail, String itemSpace, String itemId,
+			List<ItemBoundary> children) {
+
+		UserIdPK userId = new UserIdPK(userSpace, userEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		if (validator.isUserRole(user, UserRole.PLAYER))
+			throw new UserAccessDeniedException("User defined as `Player` can not perform this action");
+
+		children.forEach(validator::isValidItem);
+		children.forEach(child -> this.attributeSchemas.validate(child.getType(), child.getItemAttributesJson()));
+
+		ItemIdPK id = new ItemIdPK(itemSpace, itemId);
+		ItemEntity parent = this.itemsDao.findByIdForUpdate(id).orElseThrow(
+				() -> new ItemNotFoundException("could not find parent item by space:" + itemSpace + " id:" + itemId));
+
+		Date createdTimestamp = new Date();
+		String childrenPath = AncestorPath.childPath(this.ancestorPathOf(parent), id);
+		List<ItemEntity> batch = new ArrayList<>();
+		List<ItemBoundary> rv = new ArrayList<>();
+
+		// the ids are assigned here, persist() inserts without the SELECT save() runs before merging an assigned id.
+		// the inserts of a batch are sent together by hibernate.jdbc.batch_size on flush
+		for (ItemBoundary child : children) {
+			ItemEntity entity = this.entityConverter.toEntity(child);
+			entity.setUserEmail(user.getUserId().getEmail());
+			entity.setUserSpace(user.getUserId().getSpace());
+			entity.setCreatedTimestamp(createdTimestamp);
+			entity.setItemIdPK(new ItemIdPK(springApplicatioName, UUID.randomUUID().toString()));
+			entity.setParent(parent);
+			entity.placeAt(childrenPath);
+			this.noChildren(entity);
+			this.countChildren(parent, entity.getType(), 1);
+
+			this.entityManager.persist(entity);
+			batch.add(entity);
+
+			if (batch.size() >= this.batchSize)
+				this.flushChildren(batch, rv);
+		}
+		this.flushChildren(batch, rv);
+		rv.forEach(child -> this.revenueRollupService.updateMaintenance(null, child));
+
+		return rv;
+	}
+
+	private void flushChildren(List<ItemEntity> batch, List<ItemBoundary> rv) {
+		if (batch.isEmpty())
+			return;
+
+		this.entityManager.flush();
+		batch.forEach(entity -> {
+			rv.add(this.entityConverter.toBoundary(entity));
+			this.entityManager.detach(entity);
+		});
+		batch.clear();
+	}
+
+	// reads a JSON array or newline delimited JSON of items one by one and stores them in bounded transactions,
+	// a row that can not be read or validated is reported and the import goes on
+	@Override
+	public List<ItemImportResult> importItems(String userSpace, String userEmail, InputStream items) {
+
+		UserIdPK userId = new UserIdPK(userSpace, userEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		if (validator.isUserRole(user, UserRole.PLAYER))
+			throw new UserAccessDeniedException("User defined as `Player` can not perform this action");
+
+		if (!validator.isValidEmail(userEmail))
+			throw new EmptyFieldsException("User email is illegal");
+		if (userSpace == null || userSpace.isEmpty())
+			throw new EmptyFieldsException("User space must be specified");
+
+		List<ItemImportResult> rv = new ArrayList<>();
+		List<ItemEntity> batch = new ArrayList<>();
+		List<Integer> batchIndexes = new ArrayList<>();
+		int index = 0;
+
+		try (MappingIterator<ItemBoundary> iterator = this.itemReader.readValues(items)) {
+			while (iterator.hasNextValue()) {
+				try {
+					ItemBoundary item = iterator.nextValue();
+					validator.isValidItem(item);
+					this.attributeSchemas.validate(item.getType(), item.getItemAttributesJson());
+
+					ItemEntity entity = this.entityConverter.toEntity(item);
+					entity.setUserEmail(user.getUserId().getEmail());
+					entity.setUserSpace(user.getUserId().getSpace());
+					entity.setCreatedTimestamp(new Date());
+					entity.setItemIdPK(new ItemIdPK(springApplicatioName, UUID.randomUUID().toString()));
+					entity.placeAt(AncestorPath.ROOT);
+					this.noChildren(entity);
+					batch.add(entity);
+					batchIndexes.add(index);
+				} catch (RuntimeException | IOException e) {
+					rv.add(ItemImportResult.failed(index, e.getMessage()));
+				}
+				index++;
+
+				if (batch.size() >= this.importBatchSize)
+					this.importBatch(batch, batchIndexes, rv);
+			}
+		} catch (IOException | RuntimeException e) {
+			// the stream itself is broken, nothing after this row can be read
+			rv.add(ItemImportResult.failed(index, "Could not read items: " + e.getMessage()));
+		}
+		this.importBatch(batch, batchIndexes, rv);
+
+		return rv;
+	}
+
+	// one transaction per batch, a failed batch is reported row by row and does not roll back the previous ones
+	private void importBatch(List<ItemEntity> batch, List<Integer> batchIndexes, List<ItemImportResult> rv) {
+		if (batch.isEmpty())
+			return;
+
+		try {
+			this.transactionTemplate.execute(status -> {
+				batch.forEach(this.entityManager::persist);
+				this.entityManager.flush();
+				batch.forEach(entity -> this.revenueRollupService.updateMaintenance(null, this.entityConverter.toBoundary(entity)));
+				this.entityManager.clear();
+				return null;
+			});
+			for (int i = 0; i < batch.size(); i++) {
+				ItemIdPK id = batch.get(i).getItemIdPK();
+				rv.add(ItemImportResult.created(batchIndexes.get(i), new ItemIdBoundary(id.getSpace(), id.getId())));
+			}
+		} catch (RuntimeException e) {
+			batchIndexes.forEach(index -> rv.add(ItemImportResult.failed(index, "Could not store item: " + e.getMessage())));
+		}
+
+		batch.clear();
+		batchIndexes.clear();
 	}
 
 	@Override
@@ -278,7 +578,7 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 		System.out.println(itemSpace + " " + itemId);
 		return this.itemsDao
 				.findAllByParent_itemIdPK(id,
-						PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK"))
+						PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK.id", "itemIdPK.space"))
 				.stream()
 				.map(this.entityConverter::toBoundary)
 				.collect(Collectors.toList());
@@ -325,6 +625,113 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<ItemBoundary> getAllAncestors(String userSpace, String userEmail, String childSpace, String childId) {
+
+		UserIdPK userId = new UserIdPK(userSpace, userEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		boolean player = validator.isUserRole(user, UserRole.PLAYER);
+
+		ItemIdPK id = new ItemIdPK(childSpace, childId);
+		ItemEntity child = (player ? this.itemsDao.findByItemIdPKAndActive(id, true) : this.itemsDao.findById(id))
+				.orElseThrow(() -> new ItemNotFoundException("This item does not exist"));
+
+		List<ItemIdPK> ancestorIds = AncestorPath.ancestors(this.ancestorPathOf(child));
+		if (ancestorIds.isEmpty())
+			return new ArrayList<>();
+
+		// all the ancestors in a single primary key lookup, returned from the parent up to the root
+		Map<ItemIdPK, ItemEntity> ancestors = (player
+						? this.itemsDao.findAllByItemIdPKInAndActive(ancestorIds, true)
+						: this.itemsDao.findAllByItemIdPKIn(ancestorIds))
+				.stream()
+				.collect(Collectors.toMap(ItemEntity::getItemIdPK, Function.identity()));
+
+		return ancestorIds
+				.stream()
+				.filter(ancestors::containsKey)
+				.map(ancestors::get)
+				.map(this.entityConverter::toBoundary)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public ItemTreeNode getSubtree(String userSpace, String userEmail, String itemSpace, String itemId, int depth,
+			boolean attributes) {
+
+		UserIdPK userId = new UserIdPK(userSpace, userEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		boolean player = validator.isUserRole(user, UserRole.PLAYER);
+
+		ItemIdPK id = new ItemIdPK(itemSpace, itemId);
+		ItemEntity root = (player ? this.itemsDao.findByItemIdPKAndActive(id, true) : this.itemsDao.findById(id))
+				.orElseThrow(() -> new ItemNotFoundException("This item does not exist"));
+
+		Map<ItemIdPK, ItemTreeNode> nodes = new HashMap<>();
+		ItemTreeNode rv = new ItemTreeNode(this.toTreeBoundary(root, attributes));
+		nodes.put(id, rv);
+		if (depth < 1)
+			return rv;
+
+		// the whole subtree in one query, parents come before their children so one pass builds the tree.
+		// an item whose parent is filtered out (non-active for players) is left out with its subtree
+		String rootPath = this.ancestorPathOf(root);
+		String prefix = AncestorPath.startsWith(AncestorPath.childPath(rootPath, id));
+		int maxDepth = AncestorPath.depth(rootPath) + depth;
+		List<ItemEntity> descendants = player
+				? this.itemsDao.findAllDescendantsByActive(prefix, maxDepth, true)
+				: this.itemsDao.findAllDescendants(prefix, maxDepth);
+
+		for (ItemEntity descendant : descendants) {
+			ItemTreeNode parent = nodes.get(AncestorPath.parent(descendant.getAncestorPath()));
+			if (parent == null)
+				continue;
+
+			ItemTreeNode node = new ItemTreeNode(this.toTreeBoundary(descendant, attributes));
+			parent.getChildren().add(node);
+			nodes.put(descendant.getItemIdPK(), node);
+		}
+
+		return rv;
+	}
+
+	private ItemBoundary toTreeBoundary(ItemEntity item, boolean attributes) {
+		ItemBoundary rv = this.entityConverter.toBoundary(item);
+		if (!attributes)
+			rv.setItemAttributes(null);
+		return rv;
+	}
+
+	@Override
+	@Transactional(readOnly = false)
+	public int rebuildChildrenCounts() {
+		return this.itemsDao.rebuildChildrenCounts();
+	}
+
+	// some item has no ancestor path yet
+	@Override
+	@Transactional(readOnly = true)
+	public boolean isHierarchyRebuildNeeded() {
+		return this.itemsDao.existsByAncestorPathIsNull();
+	}
+
+	// recomputes the ancestor path of every item, one level of the hierarchy per statement.
+	// returns the depth of the deepest item
+	@Override
+	@Transactional(readOnly = false)
+	public int rebuildAncestorPaths() {
+		this.itemsDao.resetAncestorPaths();
+
+		int depth = 0;
+		while (this.itemsDao.fillChildAncestorPaths() > 0)
+			depth++;
+		return depth;
+	}
+
 	@Override
 	public List<ItemBoundary> getAllItemsByTypeAndDate(String userSpace, String userEmail, String type, Date date,
 			int size, int page) {
@@ -334,7 +741,7 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 		this.usersService.login(userId.getSpace(), userId.getEmail());
 
 		return this.itemsDao.findAllByTypeAndCreatedTimestamp(type, date,
-										PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK"))
+										PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK.id", "itemIdPK.space"))
 							.stream()
 							.map(this.entityConverter::toBoundary)
 							.collect(Collectors.toList());
@@ -356,9 +763,139 @@ public class ItemsServiceJpa implements UpdatedItemsService {
 	public List<ItemBoundary> getAllItemsByTypeAndActive(String type, boolean active, int size, int page) {
 		
 		return this.itemsDao.findAllByTypeAndActive(type, active,
-										PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK"))
+										PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK.id", "itemIdPK.space"))
 							.stream()
 							.map(this.entityConverter::toBoundary)
 							.collect(Collectors.toList());
 	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<ItemBoundary> getAllItemsAfter(String userSpace, String userEmail, String after, int size) {
+		
+		UserIdPK userId = new UserIdPK(userSpace, userEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		
+		String[] keys = ContinuationToken.decode(after, 3);
+		Date createdTimestamp = new Date(ContinuationToken.decodeTimestamp(keys[0]));
+		
+		//	players seek over the active items only, so every page is full
+		if (validator.isUserRole(user, UserRole.PLAYER)) {
+			return this.itemsDao.findAllByActiveAfter(true, createdTimestamp, keys[1], keys[2], PageRequest.of(0, size))
+					.stream()
+					.map(this.entityConverter::toBoundary)
+					.collect(Collectors.toList());
+		}
+		
+		return this.itemsDao.findAllAfter(createdTimestamp, keys[1], keys[2], PageRequest.of(0, size))
+						.stream()
+						.map(this.entityConverter::toBoundary)
+						.collect(Collectors.toList());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<ItemBoundary> getAllChildrenAfter(String userSpace, String userEmail, String itemSpace, String itemId,
+			String after, int size) {
+
+		UserIdPK userId = new UserIdPK(userSpace, userEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		this.usersService.login(userId.getSpace(), userId.getEmail());
+
+		String[] keys = ContinuationToken.decode(after, 3);
+		
+		ItemIdPK id = new ItemIdPK(itemSpace, itemId);
+		return this.itemsDao
+				.findAllByParentAfter(id,
+						new Date(ContinuationToken.decodeTimestamp(keys[0])), keys[1], keys[2],
+						PageRequest.of(0, size))
+				.stream()
+				.map(this.entityConverter::toBoundary)
+				.collect(Collectors.toList());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<ItemBoundary> getAllItemsByTypeAndActiveAfter(String type, boolean active, String after, int size) {
+		
+		String[] keys = ContinuationToken.decode(after, 3);
+		
+		return this.itemsDao.findAllByTypeAndActiveAfter(type, active,
+										new Date(ContinuationToken.decodeTimestamp(keys[0])), keys[1], keys[2],
+										PageRequest.of(0, size))
+							.stream()
+							.map(this.entityConverter::toBoundary)
+							.collect(Collectors.toList());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public void exportAllItems(String adminSpace, String adminEmail, Consumer<ItemBoundary> consumer) {
+		
+		UserIdPK userId = new UserIdPK(adminSpace, adminEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		
+		if (!validator.isUserRole(user, UserRole.ADMIN))
+			throw new UserAccessDeniedException("User's role is not admin");
+		
+		// every row is handed to the consumer and detached, so the persistence context stays empty
+		try (Stream<ItemEntity> items = this.itemsDao.streamAll()) {
+			items.forEach(item -> {
+				consumer.accept(this.entityConverter.toBoundary(item));
+				this.entityManager.detach(item);
+			});
+		}
+	}
+	
+	// compression ratio and CPU time of the attribute storage since startup, items and operations together
+	@Override
+	public Map<String, Object> getAttributesStatistics(String adminSpace, String adminEmail) {
+		UserIdPK userId = new UserIdPK(adminSpace, adminEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		
+		if (!validator.isUserRole(user, UserRole.ADMIN))
+			throw new UserAccessDeniedException("User's role is not admin");
+		
+		return this.attributesStorage.getStatistics();
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<ItemSummary> getAllItemSummaries(String userSpace, String userEmail, int size, int page) {
+		
+		UserIdPK userId = new UserIdPK(userSpace, userEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		
+		//	if user defined as player, the page holds only active items
+		if (validator.isUserRole(user, UserRole.PLAYER))
+			return this.itemsDao.findAllSummariesByActive(true,
+					PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK.id", "itemIdPK.space"));
+		
+		return this.itemsDao.findAllSummaries(PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK.id", "itemIdPK.space"));
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<ItemSummary> getAllChildrenSummaries(String userSpace, String userEmail, String itemSpace, String itemId,
+			int size, int page) {
+
+		UserIdPK userId = new UserIdPK(userSpace, userEmail);
+		//		if user does not exits, exception will be thrown inside this method
+		this.usersService.login(userId.getSpace(), userId.getEmail());
+
+		return this.itemsDao.findAllSummariesByParent(new ItemIdPK(itemSpace, itemId),
+				PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK.id", "itemIdPK.space"));
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<ItemSummary> getAllItemSummariesByTypeAndActive(String type, boolean active, int size, int page) {
+		
+		return this.itemsDao.findAllSummariesByTypeAndActive(type, active,
+				PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "itemIdPK.id", "itemIdPK.space"));
+	}
 }
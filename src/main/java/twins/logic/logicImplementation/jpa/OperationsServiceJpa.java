@@ -3,7 +3,13 @@ package twins.logic.logicImplementation.jpa;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.jms.TextMessage;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,10 +18,13 @@ import org.springframework.data.domain.Sort.Direction;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import twins.data.ItemIdPK;
+import twins.data.AsyncOperationEntity;
 import twins.data.OperationEntity;
 import twins.data.OperationIdPK;
 import twins.data.UserEntity;
@@ -24,38 +33,36 @@ import twins.data.UserRole;
 import twins.data.dao.OperationsDao;
 import twins.items.ItemBoundary;
 import twins.logic.UpdatedItemsService;
-import twins.logic.OperationsService;
+import twins.logic.ContinuationToken;
+import twins.logic.UpdatedOperationsService;
 import twins.logic.UsersService;
 import twins.logic.Exceptions.IllegalOperationType;
 import twins.logic.Exceptions.ItemNotFoundException;
+import twins.logic.Exceptions.OperationNotFoundException;
 import twins.logic.Exceptions.UserAccessDeniedException;
+import twins.logic.logicImplementation.AsyncOperationTracker;
 import twins.logic.logicImplementation.EntityConverter;
+import twins.logic.logicImplementation.PrivilegeContext;
 import twins.logic.logicImplementation.Validator;
-import twins.logic.logicImplementation.useCases.BestWorkerUseCase;
-import twins.logic.logicImplementation.useCases.FixVehicleUseCase;
-import twins.logic.logicImplementation.useCases.GetAllWorkersUseCase;
-import twins.logic.logicImplementation.useCases.GetMaintenancesByDateUseCase;
-import twins.logic.logicImplementation.useCases.GetRevenueReportUseCase;
-import twins.logic.logicImplementation.useCases.PendingMaintenanceListUseCase;
 import twins.logic.logicImplementation.useCases.UseCase;
+import twins.logic.logicImplementation.useCases.UseCaseDispatcher;
+import twins.operations.AsyncOperationBoundary;
 import twins.operations.OperationBoundary;
 
 @Service
-public class OperationsServiceJpa implements OperationsService {
+public class OperationsServiceJpa implements UpdatedOperationsService {
 
 	private OperationsDao operationsDao;
 	private UsersService usersService;
 	private UpdatedItemsService itemService;
 	private EntityConverter entityConverter;
 	private Validator validator;
+	private PrivilegeContext privilegeContext;
+	private EntityManager entityManager;
 	private String springApplicatioName;
 	private JmsTemplate jmsTemplate;
-	private FixVehicleUseCase fixVehicle;
-	private GetMaintenancesByDateUseCase getMaintenancesByDate;
-	private GetAllWorkersUseCase getAllWorkers;
-	private GetRevenueReportUseCase getRevenueReport;
-	private PendingMaintenanceListUseCase pendingMaintenance;
-	private BestWorkerUseCase bestWorker;
+	private AsyncOperationTracker asyncOperationTracker;
+	private UseCaseDispatcher useCaseDispatcher;
 
 	
 	private UserRole validOperationRole = UserRole.PLAYER;
@@ -91,38 +98,28 @@ public class OperationsServiceJpa implements OperationsService {
 	}
 
 	@Autowired
-	public void setJmsTemplate(JmsTemplate jmsTemplate) {
-		this.jmsTemplate = jmsTemplate;
+	public void setPrivilegeContext(PrivilegeContext privilegeContext) {
+		this.privilegeContext = privilegeContext;
 	}
 
-	@Autowired
-	public void setFixVehicle(FixVehicleUseCase fixVehicle) {
-		this.fixVehicle = fixVehicle;
+	@PersistenceContext
+	public void setEntityManager(EntityManager entityManager) {
+		this.entityManager = entityManager;
 	}
 
 	@Autowired
-	public void setGetMaintenancesByDate(GetMaintenancesByDateUseCase getMaintenancesByDate) {
-		this.getMaintenancesByDate = getMaintenancesByDate;
+	public void setJmsTemplate(JmsTemplate jmsTemplate) {
+		this.jmsTemplate = jmsTemplate;
 	}
 
 	@Autowired
-	public void setGetAllWorkers(GetAllWorkersUseCase getAllWorkers) {
-		this.getAllWorkers = getAllWorkers;
-	}
-	
-	@Autowired
-	public void setGetRevenueReport(GetRevenueReportUseCase getRevenueReport) {
-		this.getRevenueReport = getRevenueReport;
+	public void setAsyncOperationTracker(AsyncOperationTracker asyncOperationTracker) {
+		this.asyncOperationTracker = asyncOperationTracker;
 	}
 
 	@Autowired
-	public void setPendingMaintenance(PendingMaintenanceListUseCase pendingMaintenance) {
-		this.pendingMaintenance = pendingMaintenance;
-	}
-	
-	@Autowired
-	public void setBestWorkerUseCase(BestWorkerUseCase bestWorker) {
-		this.bestWorker = bestWorker;
+	public void setUseCaseDispatcher(UseCaseDispatcher useCaseDispatcher) {
+		this.useCaseDispatcher = useCaseDispatcher;
 	}
 
 	@Override
@@ -149,64 +146,21 @@ public class OperationsServiceJpa implements OperationsService {
 			throw new UserAccessDeniedException("This user can not perform this usecase");
 		
 		UserRole actualRole = user.getRole();
-				
-		user.setRole(validOperationRole);
-		usersService.updateUser(
-				userId.getSpace(),
-				userId.getEmail(),
-				entityConverter.toBoundary(user));
 		
-		ItemIdPK itemId = new ItemIdPK(entity.getItemSpace(), entity.getItemId());
-		ItemBoundary item = this.itemService.getSpecificItem(userId.getSpace(), userId.getEmail(), itemId.getSpace(), itemId.getId());
-		
-		if (!item.isActive())
-			throw new ItemNotFoundException("Item does not exist");	
-
 		OperationIdPK pk = new OperationIdPK(this.springApplicatioName, UUID.randomUUID().toString());
 		entity.setOperationIdPK(pk);
 		entity.setCreatedTimestamp(new Date());
 		
-		int size = 20, page = 0;
-		
-		try {
-			size = Integer.parseInt(operation.getOperationAttributes().get("size").toString());
-			page = Integer.parseInt(operation.getOperationAttributes().get("page").toString());
-		} catch (Exception e) {
-			// return to default in case of exception
-			size = 20;
-			page = 0;
-		}
-		
-		Object returnedValue = null;
-		
-		switch (operationCase) {
-		case FIX_VEHICLE:
-			this.fixVehicle.invoke(operation);
-			break;
-		case MAINTENANCE_BY_DATE:
-			returnedValue = this.getMaintenancesByDate.invoke(operation, size, page);
-			break;
-		case GET_ALL_WORKERS:
-			returnedValue = this.getAllWorkers.invoke(operation, actualRole, size, page);
-			break;
-		case GET_REVENUE_REPORT:
-			returnedValue = this.getRevenueReport.invoke(operation);
-			break;
-		case PENDING_MAINTENANCE:
-			returnedValue = this.pendingMaintenance.invoke(operation, size, page);
-			break;
-		case BEST_WORKER:
-			returnedValue = this.bestWorker.invoke(operation);
-			break;
-		default:
-			throw new IllegalOperationType("Illegal operation type");
-		}
-		
-		user.setRole(actualRole);
-		usersService.updateUser(
-				userId.getSpace(),
-				userId.getEmail(),
-				entityConverter.toBoundary(user));
+		// the operation runs with the permissions of a PLAYER, the stored role of the user is never changed
+		Object returnedValue = this.privilegeContext.runAs(userId, validOperationRole, () -> {
+			ItemIdPK itemId = new ItemIdPK(entity.getItemSpace(), entity.getItemId());
+			ItemBoundary item = this.itemService.getSpecificItem(userId.getSpace(), userId.getEmail(), itemId.getSpace(), itemId.getId());
+			
+			if (!item.isActive())
+				throw new ItemNotFoundException("Item does not exist");	
+			
+			return this.useCaseDispatcher.invoke(operationCase, operation, actualRole);
+		});
 		
 		this.operationsDao.save(entity);
 		
@@ -249,21 +203,78 @@ public class OperationsServiceJpa implements OperationsService {
 		entity.setOperationIdPK(pk);
 		entity.setCreatedTimestamp(new Date());
 		
-		if (operationCase != UseCase.FIX_VEHICLE)
-			throw new RuntimeException("This operation can not be performed a-syncronized");
-		
 		this.operationsDao.save(entity);
 		
-		ObjectMapper jackson = new ObjectMapper();
+		// the message carries the generated operation id, the listener reports its progress by it
+		String json;
 		try {
-			String json = jackson.writeValueAsString(operation);
-			this.jmsTemplate.send("asyncInbox", session -> session.createTextMessage(json));			
+			json = new ObjectMapper().writeValueAsString(this.entityConverter.toBoundary(entity));
 		} catch (Exception e) {
 			throw new RuntimeException();
 		}
+		// one message group per item, the broker hands the operations of an item to a single consumer in order
+		String group = itemId.getSpace() + "@@" + itemId.getId();
+		
+		// queued and sent only once the operation is committed, a rolled back invocation leaves no message
+		// and the listener never runs before the operation row exists
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				asyncOperationTracker.queued(pk, userId);
+				try {
+					jmsTemplate.send("asyncInbox", session -> {
+						TextMessage message = session.createTextMessage(json);
+						message.setStringProperty("JMSXGroupID", group);
+						return message;
+					});
+				} catch (RuntimeException e) {
+					asyncOperationTracker.failed(pk, "Could not queue the operation");
+					throw e;
+				}
+			}
+		});
 		return this.entityConverter.toBoundary(entity);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public AsyncOperationBoundary getAsyncOperation(String userSpace, String userEmail, String operationSpace,
+			String operationId) {
+		
+//		if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userSpace, userEmail));
+		
+		AsyncOperationEntity status = this.asyncOperationTracker.find(new OperationIdPK(operationSpace, operationId))
+				.orElseThrow(() -> new OperationNotFoundException(
+						"could not find async operation by space/id: " + operationSpace + "/" + operationId));
+		
+		// only the invoking user and admins can follow an operation
+		boolean invoker = user.getUserId().getSpace().equals(status.getUserSpace())
+				&& user.getUserId().getEmail().equals(status.getUserEmail());
+		if (!invoker && !validator.isUserRole(user, UserRole.ADMIN))
+			throw new UserAccessDeniedException("This user can not view this operation");
+		
+		return this.entityConverter.toBoundary(status);
+	}
+
+	@Override
+	public Runnable onAsyncOperationFinished(String operationSpace, String operationId, Runnable listener) {
+		OperationIdPK id = new OperationIdPK(operationSpace, operationId);
+		this.asyncOperationTracker.addListener(id, listener);
+		return () -> this.asyncOperationTracker.removeListener(id, listener);
+	}
+
+	@Override
+	public String getContinuationToken(OperationBoundary operation, Object returnedValue) {
+		if (!(returnedValue instanceof List) || operation.getOperationAttributes() == null)
+			return null;
+
+		Object opName = operation.getOperationAttributes().get("operationName");
+		if (opName == null || !this.useCaseDispatcher.isKeysetCapable(UseCase.valueOf(opName.toString())))
+			return null;
+		return ContinuationToken.ofLast((List<?>) returnedValue);
+	}
+
 	@Override
 	@Transactional(readOnly = true)
 	@Deprecated
@@ -290,10 +301,47 @@ public class OperationsServiceJpa implements OperationsService {
 			throw new UserAccessDeniedException("User's role is not admin");
 
 		return this.operationsDao
-				.findAll(PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "operationIdPK")).getContent()
+				.findAll(PageRequest.of(page, size, Direction.DESC, "createdTimestamp", "operationIdPK.operationId", "operationIdPK.operationSpace")).getContent()
 				.stream().map(this.entityConverter::toBoundary).collect(Collectors.toList());
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<OperationBoundary> getAllOperationsAfter(String adminSpace, String adminEmail, String after, int size) {
+
+		UserIdPK userId = new UserIdPK(adminSpace, adminEmail);
+
+		// if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		if (!validator.isUserRole(user, UserRole.ADMIN))
+			throw new UserAccessDeniedException("User's role is not admin");
+
+		String[] keys = ContinuationToken.decode(after, 3);
+		return this.operationsDao
+				.findAllAfter(new Date(ContinuationToken.decodeTimestamp(keys[0])), keys[1], keys[2], PageRequest.of(0, size))
+				.stream().map(this.entityConverter::toBoundary).collect(Collectors.toList());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void exportAllOperations(String adminSpace, String adminEmail, Consumer<OperationBoundary> consumer) {
+
+		UserIdPK userId = new UserIdPK(adminSpace, adminEmail);
+
+		// if user does not exits, exception will be thrown inside this method
+		UserEntity user = this.entityConverter.toEntity(this.usersService.login(userId.getSpace(), userId.getEmail()));
+		if (!validator.isUserRole(user, UserRole.ADMIN))
+			throw new UserAccessDeniedException("User's role is not admin");
+
+		// every row is handed to the consumer and detached, so the persistence context stays empty
+		try (Stream<OperationEntity> operations = this.operationsDao.streamAll()) {
+			operations.forEach(operation -> {
+				consumer.accept(this.entityConverter.toBoundary(operation));
+				this.entityManager.detach(operation);
+			});
+		}
+	}
+
 	@Override
 	@Transactional(readOnly = false)
 	public void deleteAllOperations(String adminSpace, String adminEmail) {
@@ -307,4 +355,4 @@ public class OperationsServiceJpa implements OperationsService {
 
 		this.operationsDao.deleteAll();
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
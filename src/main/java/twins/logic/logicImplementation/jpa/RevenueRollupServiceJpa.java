@@ -0,0 +1,209 @@
+package twins.logic.logicImplementation.jpa;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import twins.data.ItemEntity;
+import twins.data.RevenueRollupEntity;
+import twins.data.RevenueRollupIdPK;
+import twins.data.RevenueSummary;
+import twins.data.WorkerRevenue;
+import twins.data.dao.ItemsDao;
+import twins.data.dao.RevenueRollupsDao;
+import twins.items.ItemBoundary;
+import twins.items.attributes.AttributeSchemas;
+import twins.items.attributes.MaintenanceAttributes;
+import twins.logic.RevenueRollupService;
+import twins.logic.Exceptions.EmptyFieldsException;
+import twins.logic.logicImplementation.EntityConverter;
+
+@Service
+public class RevenueRollupServiceJpa implements RevenueRollupService {
+
+	private static final String MAINTENANCE_TYPE = "vehicle maintenance";
+
+	private RevenueRollupsDao revenueRollupsDao;
+	private ItemsDao itemsDao;
+	private AttributeSchemas attributeSchemas;
+	private EntityConverter entityConverter;
+	private EntityManager entityManager;
+
+	@Autowired
+	public void setRevenueRollupsDao(RevenueRollupsDao revenueRollupsDao) {
+		this.revenueRollupsDao = revenueRollupsDao;
+	}
+
+	@Autowired
+	public void setItemsDao(ItemsDao itemsDao) {
+		this.itemsDao = itemsDao;
+	}
+
+	@Autowired
+	public void setAttributeSchemas(AttributeSchemas attributeSchemas) {
+		this.attributeSchemas = attributeSchemas;
+	}
+
+	@Autowired
+	public void setEntityConverter(EntityConverter entityConverter) {
+		this.entityConverter = entityConverter;
+	}
+
+	@PersistenceContext
+	public void setEntityManager(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	// moves the revenue of an item from the rollup it was counted in to the one it belongs to now.
+	// before is null for a new item, an item counts only as a maintenance with a price
+	@Override
+	@Transactional(readOnly = false)
+	public void updateMaintenance(ItemBoundary before, ItemBoundary after) {
+		RevenueRollupIdPK removedId = this.rollupIdOf(before);
+		RevenueRollupIdPK addedId = this.rollupIdOf(after);
+		if (removedId == null && addedId == null)
+			return;
+
+		Double removedPrice = removedId == null ? null : this.attributeSchemas.readMaintenance(before).getPrice();
+		Double addedPrice = addedId == null ? null : this.attributeSchemas.readMaintenance(after).getPrice();
+		if (removedId != null && removedId.equals(addedId) && removedPrice.equals(addedPrice))
+			return;
+
+		// single atomic updates, concurrent fixes of the same worker and month do not lose updates
+		if (removedId != null) {
+			this.revenueRollupsDao.removeMaintenance(removedId.getSpace(), removedId.getYear(), removedId.getMonth(),
+					removedId.getWorkerSpace(), removedId.getWorkerEmail(), removedPrice);
+			this.revenueRollupsDao.deleteEmptyRollup(removedId.getSpace(), removedId.getYear(), removedId.getMonth(),
+					removedId.getWorkerSpace(), removedId.getWorkerEmail());
+		}
+		if (addedId != null)
+			this.revenueRollupsDao.addMaintenance(addedId.getSpace(), addedId.getYear(), addedId.getMonth(),
+					addedId.getWorkerSpace(), addedId.getWorkerEmail(), addedPrice);
+	}
+
+	private RevenueRollupIdPK rollupIdOf(ItemBoundary item) {
+		if (item == null || !MAINTENANCE_TYPE.equals(item.getType()))
+			return null;
+
+		MaintenanceAttributes attributes = this.attributeSchemas.readMaintenance(item);
+		if (attributes.getPrice() == null)
+			return null;
+
+		// the revenue of a maintenance without a worker still counts in the monthly total
+		String workerSpace = RevenueRollupIdPK.NO_WORKER;
+		String workerEmail = RevenueRollupIdPK.NO_WORKER;
+		if (attributes.getWorkerSpace() != null && attributes.getWorkerEmail() != null) {
+			workerSpace = attributes.getWorkerSpace();
+			workerEmail = attributes.getWorkerEmail();
+		}
+
+		Calendar created = Calendar.getInstance();
+		created.setTime(item.getCreatedTimestamp());
+		return new RevenueRollupIdPK(item.getItemId().getSpace(), created.get(Calendar.YEAR),
+				created.get(Calendar.MONTH) + 1, workerSpace, workerEmail);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public RevenueSummary getMonthlyRevenue(int year, int month) {
+		return this.revenueRollupsDao.sumByYearAndMonth(year, month);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<WorkerRevenue> getTopWorkers(int year, int month, int limit) {
+		return this.revenueRollupsDao.findTopWorkersByYearAndMonth(year, month, RevenueRollupIdPK.NO_WORKER,
+				PageRequest.of(0, limit));
+	}
+
+	// nothing was rolled up yet, but there are maintenances to roll up
+	@Override
+	@Transactional(readOnly = true)
+	public boolean isRebuildNeeded() {
+		return this.revenueRollupsDao.count() == 0 && this.itemsDao.existsByType(MAINTENANCE_TYPE);
+	}
+
+	// the maintenances are streamed and their attributes read in Java, they may be stored as Smile or deflated
+	@Override
+	@Transactional(readOnly = false)
+	public int rebuildRollups() {
+		Map<RevenueRollupIdPK, RevenueRollupEntity> rollups;
+		try (Stream<ItemEntity> maintenances = this.itemsDao.streamAllByType(MAINTENANCE_TYPE)) {
+			rollups = this.rollUp(maintenances);
+		}
+
+		this.revenueRollupsDao.deleteAllRollups();
+		rollups.values().forEach(this.entityManager::persist);
+		return rollups.size();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Map<String, Object> checkRollups(int year, int month) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(year, month - 1, 1);
+		Date startDate = calendar.getTime();
+		calendar.set(Calendar.DAY_OF_MONTH, calendar.getActualMaximum(Calendar.DAY_OF_MONTH));
+		Date endDate = calendar.getTime();
+
+		RevenueSummary rollup = this.getMonthlyRevenue(year, month);
+		Map<RevenueRollupIdPK, RevenueRollupEntity> items;
+		try (Stream<ItemEntity> maintenances = this.itemsDao.streamAllByTypeAndCreatedTimestampBetween(
+				MAINTENANCE_TYPE, startDate, endDate)) {
+			items = this.rollUp(maintenances);
+		}
+		double itemsRevenue = items.values().stream().mapToDouble(RevenueRollupEntity::getRevenue).sum();
+		long itemsMaintenances = items.values().stream().mapToLong(RevenueRollupEntity::getMaintenances).sum();
+
+		Map<String, Object> rv = new HashMap<>();
+		rv.put("year", year);
+		rv.put("month", month);
+		rv.put("rollupRevenue", rollup.getTotal());
+		rv.put("itemsRevenue", itemsRevenue);
+		rv.put("rollupMaintenances", rollup.getMaintenances());
+		rv.put("itemsMaintenances", itemsMaintenances);
+		rv.put("consistent", Math.abs(rollup.getTotal() - itemsRevenue) < 0.005
+				&& rollup.getMaintenances() == itemsMaintenances);
+		return rv;
+	}
+
+	// every row is detached once it is counted, so the persistence context stays empty.
+	// rows written before the schemas were validated may have an illegal price, they are not counted
+	private Map<RevenueRollupIdPK, RevenueRollupEntity> rollUp(Stream<ItemEntity> maintenances) {
+		Map<RevenueRollupIdPK, RevenueRollupEntity> rv = new HashMap<>();
+		maintenances.forEach(entity -> {
+			ItemBoundary maintenance = this.entityConverter.toBoundary(entity);
+			this.entityManager.detach(entity);
+
+			RevenueRollupIdPK id;
+			try {
+				id = this.rollupIdOf(maintenance);
+			} catch (EmptyFieldsException e) {
+				return;
+			}
+			if (id == null)
+				return;
+
+			RevenueRollupEntity rollup = rv.computeIfAbsent(id, key -> {
+				RevenueRollupEntity created = new RevenueRollupEntity();
+				created.setRevenueRollupIdPK(key);
+				return created;
+			});
+			rollup.setRevenue(rollup.getRevenue() + this.attributeSchemas.readMaintenance(maintenance).getPrice());
+			rollup.setMaintenances(rollup.getMaintenances() + 1);
+		});
+		return rv;
+	}
+}
@@ -1,8 +1,16 @@
 package twins.logic.logicImplementation.jpa;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,16 +18,22 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import twins.data.UserEntity;
 import twins.data.UserIdPK;
 import twins.data.UserRole;
 import twins.data.dao.UsersDao;
+import twins.logic.ContinuationToken;
 import twins.logic.UpdatedUsersService;
 import twins.logic.Exceptions.UserAccessDeniedException;
 import twins.logic.Exceptions.UserAlreadyExistsException;
 import twins.logic.Exceptions.UserNotFoundException;
+import twins.logic.logicImplementation.CallerContext;
 import twins.logic.logicImplementation.EntityConverter;
+import twins.logic.logicImplementation.PrivilegeContext;
+import twins.logic.logicImplementation.UserLoginCache;
 import twins.logic.logicImplementation.Validator;
 import twins.users.UserBoundary;
 
@@ -29,6 +43,10 @@ public class UserServiceJpa implements UpdatedUsersService {
 	private UsersDao usersDao;
 	private EntityConverter entityConverter;
 	private Validator validator;
+	private UserLoginCache loginCache;
+	private PrivilegeContext privilegeContext;
+	private CallerContext callerContext;
+	private EntityManager entityManager;
 	private String springApplicatioName;
 
 	public UserServiceJpa() {
@@ -54,6 +72,26 @@ public class UserServiceJpa implements UpdatedUsersService {
 		this.validator = validator;
 	}
 
+	@Autowired
+	public void setLoginCache(UserLoginCache loginCache) {
+		this.loginCache = loginCache;
+	}
+
+	@Autowired
+	public void setPrivilegeContext(PrivilegeContext privilegeContext) {
+		this.privilegeContext = privilegeContext;
+	}
+
+	@Autowired
+	public void setCallerContext(CallerContext callerContext) {
+		this.callerContext = callerContext;
+	}
+
+	@PersistenceContext
+	public void setEntityManager(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
 	@Override
 	@Transactional(readOnly = false) // The default value
 	public UserBoundary createUser(UserBoundary user) {
@@ -75,6 +113,7 @@ public class UserServiceJpa implements UpdatedUsersService {
 			return null;
 		
 		this.usersDao.save(entity);
+		this.invalidateCachedUser(entity.getUserId());
 		return userB;
 	}
 
@@ -84,11 +123,28 @@ public class UserServiceJpa implements UpdatedUsersService {
 		// Users unique addressID combined from this String --> userSpace and userEmail
 		// (TOGETHER)
 
-		Optional<UserEntity> optionalUser = this.usersDao.findById(new UserIdPK(userSpace, userEmail));
+		UserIdPK userId = new UserIdPK(userSpace, userEmail);
+
+		// already resolved during this request
+		UserBoundary resolved = this.callerContext.getResolvedUser(userId);
+		if (resolved != null)
+			return this.withElevatedRole(userId, resolved);
+
+		this.callerContext.countLookup();
+		long generation = this.loginCache.getGeneration();
+		UserBoundary cached = this.loginCache.get(userId);
+		if (cached != null) {
+			this.callerContext.setResolvedUser(userId, cached);
+			return this.withElevatedRole(userId, cached);
+		}
+
+		Optional<UserEntity> optionalUser = this.usersDao.findById(userId);
 		if (optionalUser.isPresent()) {
 			UserEntity entity = optionalUser.get();
 			UserBoundary boundary = entityConverter.toBoundary(entity);
-			return boundary;
+			this.loginCache.put(userId, boundary, generation);
+			this.callerContext.setResolvedUser(userId, boundary);
+			return this.withElevatedRole(userId, boundary);
 		} else {
 			throw new UserNotFoundException(
 					"Could not find user by userSpace/userEmail : " + userSpace + "/" + userEmail);// NullPointerException
@@ -115,6 +171,7 @@ public class UserServiceJpa implements UpdatedUsersService {
 
 			// update database
 			existing = this.usersDao.save(existing);
+			this.invalidateCachedUser(existing.getUserId());
 
 			UserBoundary rv = this.entityConverter.toBoundary(existing);
 			return rv;
@@ -150,45 +207,34 @@ public class UserServiceJpa implements UpdatedUsersService {
 	@Override
 	@Transactional(readOnly = true)
 	public List<UserBoundary> getAllUsers(String adminSpace, String adminEmail, int size, int page) {
-		// Users unique addressID combined from this String --> userSpace and userEmail
-		// (TOGETHER)
-		Optional<UserEntity> optionalUser = this.usersDao.findById(new UserIdPK(adminSpace, adminEmail));
-		if (optionalUser.isPresent()) {
-			UserEntity entity = optionalUser.get();
-			if (entity.getRole() == UserRole.ADMIN) {
-				
-					return this.usersDao
-							.findAll(PageRequest.of(page, size, Direction.DESC, "username", "userId"))
-							.getContent()
-							.stream()
-							.map(this.entityConverter::toBoundary)
-							.collect(Collectors.toList());
-				
-			}else {
-				throw new UserAccessDeniedException("User is not ADMIN,therefore access denied! ");// Not a Manager
-			}
+		// if user does not exits, exception will be thrown inside this method
+		UserBoundary admin = this.login(adminSpace, adminEmail);
+		if (UserRole.valueOf(admin.getRole()) == UserRole.ADMIN) {
+			
+				return this.usersDao
+						.findAll(PageRequest.of(page, size, Direction.DESC, "username", "userId.email", "userId.space"))
+						.getContent()
+						.stream()
+						.map(this.entityConverter::toBoundary)
+						.collect(Collectors.toList());
+			
 		}else {
-			throw new UserNotFoundException(
-					"Could not find user by userSpace/userEmail : " + adminSpace + "/" + adminEmail);// NullPointerException
+			throw new UserAccessDeniedException("User is not ADMIN,therefore access denied! ");// Not a Manager
 		}
 	}
 
 	@Override
 	@Transactional(readOnly = false) // The default value
 	public void deleteAllUsers(String adminSpace, String adminEmail) {
-		// Users unique addressID combined from this String --> userSpace and userEmail
-		// (TOGETHER)
-		Optional<UserEntity> optionalUser = this.usersDao.findById(new UserIdPK(adminSpace, adminEmail));
-		if (optionalUser.isPresent()) {
-			UserEntity entity = optionalUser.get();
-			if (entity.getRole() == UserRole.ADMIN) {
-				this.usersDao.deleteAll();
-			} else {
-				throw new UserAccessDeniedException("User is not ADMIN,therefore access denied! ");// Not a Manager
-			}
+		// if user does not exits, exception will be thrown inside this method
+		UserBoundary admin = this.login(adminSpace, adminEmail);
+		if (UserRole.valueOf(admin.getRole()) == UserRole.ADMIN) {
+			this.usersDao.deleteAll();
+			this.loginCache.invalidateAll();
+			this.callerContext.evictAll();
+			this.invalidateCachedUsersAfterCommit();
 		} else {
-			throw new UserNotFoundException(
-					"Could not find user by userSpace/userEmail : " + adminSpace + "/" + adminEmail);// NullPointerException
+			throw new UserAccessDeniedException("User is not ADMIN,therefore access denied! ");// Not a Manager
 		}
 	}
 
@@ -196,12 +242,130 @@ public class UserServiceJpa implements UpdatedUsersService {
 	public List<UserBoundary> getAllUsersByRole(UserRole role, int size, int page) {
 		return this.usersDao.findAllByRole(
 							role,
-							PageRequest.of(page, size, Direction.DESC, "username", "userId"))
+							PageRequest.of(page, size, Direction.DESC, "username", "userId.email", "userId.space"))
+					.stream()
+					.map(this.entityConverter::toBoundary)
+					.collect(Collectors.toList());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<UserBoundary> getAllUsersAfter(String adminSpace, String adminEmail, String after, int size) {
+		// if user does not exits, exception will be thrown inside this method
+		UserBoundary admin = this.login(adminSpace, adminEmail);
+		if (UserRole.valueOf(admin.getRole()) != UserRole.ADMIN)
+			throw new UserAccessDeniedException("User is not ADMIN,therefore access denied! ");// Not a Manager
+
+		String[] keys = ContinuationToken.decode(after, 3);
+		return this.usersDao
+				.findAllAfter(keys[0], keys[1], keys[2], PageRequest.of(0, size))
+				.stream()
+				.map(this.entityConverter::toBoundary)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<UserBoundary> getAllUsersByRoleAfter(UserRole role, String after, int size) {
+		String[] keys = ContinuationToken.decode(after, 3);
+		return this.usersDao.findAllByRoleAfter(
+							role,
+							keys[0], keys[1], keys[2],
+							PageRequest.of(0, size))
 					.stream()
 					.map(this.entityConverter::toBoundary)
 					.collect(Collectors.toList());
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<UserBoundary> getUsersByIds(Collection<UserIdPK> userIds) {
+		List<UserBoundary> rv = new ArrayList<>();
+		List<UserIdPK> missing = new ArrayList<>();
+		long generation = this.loginCache.getGeneration();
 
+		for (UserIdPK userId : userIds) {
+			UserBoundary cached = this.loginCache.get(userId);
+			if (cached != null)
+				rv.add(cached);
+			else
+				missing.add(userId);
+		}
+
+		// resolve all the remaining users with a single query
+		if (!missing.isEmpty()) {
+			this.usersDao.findAllByUserIdIn(missing)
+					.stream()
+					.map(this.entityConverter::toBoundary)
+					.forEach(user -> {
+						this.loginCache.put(new UserIdPK(user.getUserId().getSpace(), user.getUserId().getEmail()), user, generation);
+						rv.add(user);
+					});
+		}
+
+		return rv;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void exportAllUsers(String adminSpace, String adminEmail, Consumer<UserBoundary> consumer) {
+		// if user does not exits, exception will be thrown inside this method
+		UserBoundary admin = this.login(adminSpace, adminEmail);
+		if (UserRole.valueOf(admin.getRole()) != UserRole.ADMIN)
+			throw new UserAccessDeniedException("User is not ADMIN,therefore access denied! ");// Not a Manager
+
+		// every row is handed to the consumer and detached, so the persistence context stays empty
+		try (Stream<UserEntity> users = this.usersDao.streamAll()) {
+			users.forEach(user -> {
+				consumer.accept(this.entityConverter.toBoundary(user));
+				this.entityManager.detach(user);
+			});
+		}
+	}
+
+	// hits, misses and evictions of the login cache since startup
+	@Override
+	public Map<String, Object> getLoginCacheStatistics(String adminSpace, String adminEmail) {
+		// if user does not exits, exception will be thrown inside this method
+		UserBoundary admin = this.login(adminSpace, adminEmail);
+		if (UserRole.valueOf(admin.getRole()) != UserRole.ADMIN)
+			throw new UserAccessDeniedException("User is not ADMIN,therefore access denied! ");// Not a Manager
+
+		return this.loginCache.getStatistics();
+	}
+
+	// operations running under PrivilegeContext see the elevated role, the stored role is untouched
+	private UserBoundary withElevatedRole(UserIdPK userId, UserBoundary user) {
+		UserRole elevatedRole = this.privilegeContext.getElevatedRole(userId);
+		if (elevatedRole != null)
+			user.setRole(elevatedRole.name());
+		return user;
+	}
+
+	// evict now and once more after commit. both start a new cache generation, so a login that
+	// read the row we are replacing before the commit can not put it back afterwards
+	private void invalidateCachedUser(UserIdPK userId) {
+		this.callerContext.evict(userId);
+		this.loginCache.invalidate(userId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					loginCache.invalidate(userId);
+				}
+			});
+		}
+	}
+
+	private void invalidateCachedUsersAfterCommit() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					loginCache.invalidateAll();
+				}
+			});
+		}
+	}
 
 }
@@ -2,17 +2,23 @@ package twins.logic.logicImplementation.useCases;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
+import twins.items.attributes.AttributeSchemas;
+import twins.logic.RevenueRollupService;
 import twins.logic.UpdatedItemsService;
 import twins.logic.UpdatedUsersService;
 import twins.logic.logicImplementation.EntityConverter;
+import twins.logic.logicImplementation.PrivilegeContext;
 import twins.logic.logicImplementation.Validator;
 
 public abstract class AbstractUseCase {
 
 	protected UpdatedItemsService itemsService;
 	protected UpdatedUsersService usersService;
+	protected RevenueRollupService revenueRollupService;
 	protected EntityConverter entityConverter;
 	protected Validator validator;
+	protected PrivilegeContext privilegeContext;
+	protected AttributeSchemas attributeSchemas;
 	
 	@Autowired
 	public void setItemService(UpdatedItemsService itemService) {
@@ -24,6 +30,11 @@ public abstract class AbstractUseCase {
 		this.usersService = usersService;
 	}
 	
+	@Autowired
+	public void setRevenueRollupService(RevenueRollupService revenueRollupService) {
+		this.revenueRollupService = revenueRollupService;
+	}
+	
 	@Autowired
 	public void setEntityConverter(EntityConverter entityConverter) {
 		this.entityConverter = entityConverter;
@@ -33,5 +44,15 @@ public abstract class AbstractUseCase {
 	public void setValidator(Validator validator) {
 		this.validator = validator;
 	}
+
+	@Autowired
+	public void setPrivilegeContext(PrivilegeContext privilegeContext) {
+		this.privilegeContext = privilegeContext;
+	}
+
+	@Autowired
+	public void setAttributeSchemas(AttributeSchemas attributeSchemas) {
+		this.attributeSchemas = attributeSchemas;
+	}
 	
 }
@@ -1,21 +1,24 @@
 package twins.logic.logicImplementation.useCases;
 
-import java.text.SimpleDateFormat;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
-import twins.items.ItemBoundary;
+import twins.data.UserIdPK;
+import twins.data.UserRole;
+import twins.data.WorkerRevenue;
 import twins.items.ItemIdBoundary;
+import twins.items.attributes.AttributeSchemas;
+import twins.items.attributes.ReportAttributes;
 import twins.logic.Exceptions.EmptyFieldsException;
 import twins.logic.Exceptions.IllegalDateException;
 import twins.logic.Exceptions.IllegalItemTypeException;
 import twins.logic.Exceptions.NoMaintenancesInDate;
+import twins.logic.Exceptions.UserNotFoundException;
 import twins.operations.OperationBoundary;
 import twins.users.UserBoundary;
 import twins.users.UserId;
@@ -25,81 +28,84 @@ public class BestWorkerUseCase extends AbstractUseCase {
 
 	public Map<String, Object> invoke(OperationBoundary operation) {
 		UserId userId = operation.getInvokedBy().getUserId();
-		UserBoundary user = usersService.login(userId.getSpace(), userId.getEmail());
 		
-		// change user's role to MANAGER to get all the non-active items
-		user.setRole("MANAGER");
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
+		// act as MANAGER to get all the non-active items
+		return this.privilegeContext.runAs(
+				new UserIdPK(userId.getSpace(), userId.getEmail()),
+				UserRole.MANAGER,
+				() -> this.findBestWorker(operation));
+	}
+	
+	private Map<String, Object> findBestWorker(OperationBoundary operation) {
+		UserId userId = operation.getInvokedBy().getUserId();
 		
 		ItemIdBoundary itemId = operation.getItem().getItemId();
 		if (!this.itemsService.getSpecificItem(userId.getSpace(), userId.getEmail(), itemId.getSpace(), itemId.getId())
-				.getType().equals("report")) {
+				.getType().equals(AttributeSchemas.REPORT)) {
 			throw new IllegalItemTypeException("Item's type is not a report");
 		}
 		
-		Date startDate, endDate;
-		int month, year;
-		String stringStartDate, stringEndDate;
-		
-		if (!operation.getOperationAttributes().containsKey("year") || !operation.getOperationAttributes().containsKey("month")) {
-			throw new EmptyFieldsException("Year and month must be specified");
-		}
-				
+		ReportAttributes report;
 		try {
-			
-			month = Integer.parseInt(operation.getOperationAttributes().get("month").toString());
-			year = Integer.parseInt(operation.getOperationAttributes().get("year").toString());
-			
-			stringStartDate = year + "-" + month + "-01";
-			stringEndDate = year + "-" + (month + 1) + "-01";
-			
-			if (month == 12)
-				stringEndDate = (year + 1) + "-01-01";
-			
-			startDate = new SimpleDateFormat("yyyy-MM-dd").parse(stringStartDate);
-			endDate = new SimpleDateFormat("yyyy-MM-dd").parse(stringEndDate);
+			report = this.attributeSchemas.readReport(operation);
 		} catch (Exception e) {
-			throw new IllegalDateException("Illegal month or year");
+			throw new IllegalDateException("Illegal month, year or top");
 		}
 		
-		List<ItemBoundary> items = this.itemsService
-				.getAllItemsByTypeAndDateBetween(
-						"vehicle maintenance",
-						startDate,
-						endDate);
+		if (report.getYear() == null || report.getMonth() == null) {
+			throw new EmptyFieldsException("Year and month must be specified");
+		}
 		
-		Map<UserBoundary, Double> workersRevenue = new HashMap<>();
+		int month = report.getMonth();
+		int year = report.getYear();
 		
-		items.forEach(item -> {
-			if (item.getItemAttributes().containsKey("workerSpace") && item.getItemAttributes().containsKey("workerEmail")) {
-								
-				String space = item.getItemAttributes().get("workerSpace").toString();
-				String email = item.getItemAttributes().get("workerEmail").toString();
-
-				UserBoundary tempUser = usersService.login(space, email);
-				if (item.getItemAttributes().containsKey("price")) {
-					double total = Double.parseDouble(item.getItemAttributes().get("price").toString());
-					if (workersRevenue.containsKey(tempUser)) {
-						total += workersRevenue.get(tempUser);
-					}
-					workersRevenue.put(tempUser, total);
-				}
-			}
-		});
+		if (month < 1 || month > 12)
+			throw new IllegalDateException("Illegal month or year");
 		
-		user.setRole("PLAYER");
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
+		// optional size of the leaderboard, by default only the best worker is returned
+		int top = 1;
+		boolean leaderboard = report.getTop() != null;
+		if (leaderboard)
+			top = report.getTop();
+		if (top < 1)
+			throw new EmptyFieldsException("Top must be a positive number");
 		
-		if (workersRevenue.isEmpty())
+//		SELECT worker, SUM(revenue) FROM REVENUE_ROLLUPS WHERE YEAR = year AND MONTH = month
+//		GROUP BY worker ORDER BY SUM(revenue) DESC LIMIT top
+		List<WorkerRevenue> topWorkers = this.revenueRollupService.getTopWorkers(year, month, top);
+		
+		if (topWorkers.isEmpty())
 			throw new NoMaintenancesInDate("There are no maintenances in the specified date");
 		
-		Map.Entry<UserBoundary, Double> theBestWorker = Collections.max(				//	extract the worker with the highest revenue
-																	workersRevenue.entrySet(),
-																	Comparator.comparingDouble(Map.Entry::getValue));
+		// users are resolved only for the workers on the leaderboard
+		Map<UserIdPK, UserBoundary> workers = new HashMap<>();
+		this.usersService.getUsersByIds(
+						topWorkers.stream()
+						.map(worker -> new UserIdPK(worker.getWorkerSpace(), worker.getWorkerEmail()))
+						.collect(Collectors.toList()))
+				.forEach(worker -> workers.put(
+						new UserIdPK(worker.getUserId().getSpace(), worker.getUserId().getEmail()),
+						worker));
+		
+		List<Map<String, Object>> ranking = new ArrayList<>();
+		for (WorkerRevenue worker : topWorkers) {
+			UserIdPK workerId = new UserIdPK(worker.getWorkerSpace(), worker.getWorkerEmail());
+			if (!workers.containsKey(workerId))
+				throw new UserNotFoundException("Could not find user by userSpace/userEmail : "
+						+ workerId.getSpace() + "/" + workerId.getEmail());
+			
+			Map<String, Object> entry = new HashMap<String, Object>();
+			entry.put("user", workers.get(workerId));
+			entry.put("revenue", worker.getRevenue());
+			entry.put("maintenances", worker.getMaintenances());
+			ranking.add(entry);
+		}
 		
 		Map<String, Object> returnedValues = new HashMap<String, Object>();
-		returnedValues.put("user", theBestWorker.getKey());
-		returnedValues.put("revenue", theBestWorker.getValue());
+		returnedValues.put("user", ranking.get(0).get("user"));
+		returnedValues.put("revenue", ranking.get(0).get("revenue"));
+		if (leaderboard)
+			returnedValues.put("leaderboard", ranking);
 		
 		return returnedValues;
 	}
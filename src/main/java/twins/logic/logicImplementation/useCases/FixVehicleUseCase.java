@@ -1,16 +1,19 @@
 package twins.logic.logicImplementation.useCases;
 
 import java.util.ArrayList;
-import java.util.Map;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
 
+import twins.data.UserIdPK;
+import twins.data.UserRole;
 import twins.items.ItemBoundary;
 import twins.items.Location;
+import twins.items.attributes.AttributeSchemas;
+import twins.items.attributes.MaintenanceAttributes;
 import twins.logic.Exceptions.EmptyFieldsException;
 import twins.logic.Exceptions.IllegalItemTypeException;
 import twins.operations.OperationBoundary;
-import twins.users.UserBoundary;
 import twins.users.UserId;
 
 @Service
@@ -18,7 +21,6 @@ public class FixVehicleUseCase extends AbstractUseCase {
 
 	public void invoke(OperationBoundary operation) {
 		UserId userId = operation.getInvokedBy().getUserId();
-		UserBoundary user = usersService.login(userId.getSpace(), userId.getEmail());
 		
 		ItemBoundary item = itemsService.getSpecificItem(
 				userId.getSpace(),
@@ -27,11 +29,11 @@ public class FixVehicleUseCase extends AbstractUseCase {
 				operation.getItem().getItemId().getId());
 		
 		// validate type of item is `vehicle maintenance`
-		if(!item.getType().equals("vehicle maintenance"))
+		if(!item.getType().equals(AttributeSchemas.MAINTENANCE))
 			throw new IllegalItemTypeException("This item's type is " + item.getType() + ", and not vehicle maintenance");
 		
 		// validate the type of this vehicle maintenance item is exists and is `fix`
-		if (item.getItemAttributes().get("type") == null || !item.getItemAttributes().get("type").equals("fix"))
+		if (!MaintenanceAttributes.FIX.equals(this.attributeSchemas.readMaintenance(item).getType()))
 			throw new IllegalItemTypeException("This maintenance's type is not `fix` or not specified");
 		
 		ArrayList<String> allItems = null;
@@ -50,52 +52,56 @@ public class FixVehicleUseCase extends AbstractUseCase {
 			throw new EmptyFieldsException("Price of maintenance is required");
 		}
 		
-		user.setRole("MANAGER");
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
-		
+		// act as MANAGER to create the vehicle items and update the maintenance
+		ArrayList<String> parts = allItems;
+		double maintenancePrice = price;
+		this.privilegeContext.runAs(
+				new UserIdPK(userId.getSpace(), userId.getEmail()),
+				UserRole.MANAGER,
+				() -> this.fixVehicle(operation, parts, maintenancePrice));
+	}
+	
+	private void fixVehicle(OperationBoundary operation, ArrayList<String> allItems, double price) {
+		List<ItemBoundary> vehicleItems = new ArrayList<>();
 		allItems.forEach(string -> {
 			ItemBoundary vehicleItem = new ItemBoundary();
 			vehicleItem.setName(string);
 			vehicleItem.setType("vehicle item");
-			vehicleItem.setActive(true);
 			vehicleItem.setCreatedBy(operation.getInvokedBy());
 			vehicleItem.setLocation(new Location(0, 0));
 			vehicleItem.setActive(false);
-			vehicleItem = itemsService.createItem(
-					operation.getInvokedBy().getUserId().getSpace(),
-					operation.getInvokedBy().getUserId().getEmail(),
-					vehicleItem);
-			itemsService.addChildToParent(
-					operation.getInvokedBy().getUserId().getSpace(),
-					operation.getInvokedBy().getUserId().getEmail(),
-					operation.getItem().getItemId().getSpace(),
-					operation.getItem().getItemId().getId(),
-					vehicleItem.getItemId());
+			vehicleItems.add(vehicleItem);
 		});
 		
+		// all the parts are created as children of the maintenance in batches
+		itemsService.createChildren(
+				operation.getInvokedBy().getUserId().getSpace(),
+				operation.getInvokedBy().getUserId().getEmail(),
+				operation.getItem().getItemId().getSpace(),
+				operation.getItem().getItemId().getId(),
+				vehicleItems);
+		
 		ItemBoundary parent = itemsService.getSpecificItem(
 				operation.getInvokedBy().getUserId().getSpace(),
 				operation.getInvokedBy().getUserId().getEmail(),
 				operation.getItem().getItemId().getSpace(),
 				operation.getItem().getItemId().getId());
 		
-		Map<String, Object> attributes = parent.getItemAttributes();
-		attributes.put("isFixed", true);
-		attributes.put("price", price);
-		attributes.put("workerSpace", operation.getInvokedBy().getUserId().getSpace());
-		attributes.put("workerEmail", operation.getInvokedBy().getUserId().getEmail());
-		parent.setItemAttributes(attributes);
+		MaintenanceAttributes attributes = new MaintenanceAttributes();
+		attributes.setFixed(true);
+		attributes.setPrice(price);
+		attributes.setWorkerSpace(operation.getInvokedBy().getUserId().getSpace());
+		attributes.setWorkerEmail(operation.getInvokedBy().getUserId().getEmail());
+		parent.setItemAttributesJson(this.attributeSchemas.merge(parent.getItemAttributesJson(), attributes));
 		parent.setActive(false);
 		
+		// the item service keeps the monthly revenue reports up to date
 		itemsService.updateItem(
 				operation.getInvokedBy().getUserId().getSpace(),
 				operation.getInvokedBy().getUserId().getEmail(),
 				operation.getItem().getItemId().getSpace(),
 				operation.getItem().getItemId().getId(),
 				parent);
-		
-		user.setRole("PLAYER");
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
 	}
 
 }
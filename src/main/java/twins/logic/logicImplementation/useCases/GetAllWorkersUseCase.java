@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.stereotype.Service;
 
+import twins.data.UserIdPK;
 import twins.data.UserRole;
 import twins.items.ItemIdBoundary;
 import twins.logic.Exceptions.EmptyFieldsException;
@@ -35,15 +36,18 @@ public class GetAllWorkersUseCase extends AbstractUseCase {
 			throw new IllegalItemTypeException("Item's type is not a report");
 		}
 		
-		UserBoundary user = usersService.login(userId.getSpace(), userId.getEmail());
-		user.setRole(myRole.toString());
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
-			
-		List<UserBoundary> allUsers =  this.usersService.getAllUsersByRole(UserRole.valueOf(userType), size, page);
-		
-		user.setRole(UserRole.PLAYER.toString());
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
+		// continue after the last user of the previous page when a continuation token is given
+		if (operation.getOperationAttributes().containsKey("after")) {
+			String after = operation.getOperationAttributes().get("after").toString();
+			return this.privilegeContext.runAs(
+					new UserIdPK(userId.getSpace(), userId.getEmail()),
+					myRole,
+					() -> this.usersService.getAllUsersByRoleAfter(UserRole.valueOf(userType), after, size));
+		}
 		
-		return allUsers;
+		return this.privilegeContext.runAs(
+				new UserIdPK(userId.getSpace(), userId.getEmail()),
+				myRole,
+				() -> this.usersService.getAllUsersByRole(UserRole.valueOf(userType), size, page));
 	}
 }
@@ -6,12 +6,13 @@ import java.util.List;
 
 import org.springframework.stereotype.Service;
 
+import twins.data.UserIdPK;
+import twins.data.UserRole;
 import twins.items.ItemBoundary;
 import twins.items.ItemIdBoundary;
 import twins.logic.Exceptions.IllegalDateException;
 import twins.logic.Exceptions.IllegalItemTypeException;
 import twins.operations.OperationBoundary;
-import twins.users.UserBoundary;
 import twins.users.UserId;
 
 @Service
@@ -19,11 +20,16 @@ public class GetMaintenancesByDateUseCase extends AbstractUseCase {
 
 	public List<ItemBoundary> invoke(OperationBoundary operation, int size, int page) {
 		UserId userId = operation.getInvokedBy().getUserId();
-		UserBoundary user = usersService.login(userId.getSpace(), userId.getEmail());
 
-		// change user's role to MANAGER to get all the non-active items
-		user.setRole("MANAGER");
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
+		// act as MANAGER to get all the non-active items
+		return this.privilegeContext.runAs(
+				new UserIdPK(userId.getSpace(), userId.getEmail()),
+				UserRole.MANAGER,
+				() -> this.findMaintenances(operation, size, page));
+	}
+
+	private List<ItemBoundary> findMaintenances(OperationBoundary operation, int size, int page) {
+		UserId userId = operation.getInvokedBy().getUserId();
 
 		if (!operation.getOperationAttributes().containsKey("date"))
 			throw new IllegalDateException("Illegal date. Date format is yyyy-MM-dd");
@@ -49,9 +55,6 @@ public class GetMaintenancesByDateUseCase extends AbstractUseCase {
 										.getAllItemsByTypeAndDate(userId.getSpace(), userId.getEmail(),
 										vehicleType, date, size, page);
 
-		user.setRole("PLAYER");
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
-
 		return cars;
 	}
 }
@@ -1,18 +1,17 @@
 package twins.logic.logicImplementation.useCases;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
-
 import org.springframework.stereotype.Service;
 
-import twins.items.ItemBoundary;
+import twins.data.RevenueSummary;
+import twins.data.UserIdPK;
+import twins.data.UserRole;
 import twins.items.ItemIdBoundary;
+import twins.items.attributes.AttributeSchemas;
+import twins.items.attributes.ReportAttributes;
 import twins.logic.Exceptions.EmptyFieldsException;
 import twins.logic.Exceptions.IllegalDateException;
 import twins.logic.Exceptions.IllegalItemTypeException;
 import twins.operations.OperationBoundary;
-import twins.users.UserBoundary;
 import twins.users.UserId;
 
 @Service
@@ -20,66 +19,44 @@ public class GetRevenueReportUseCase extends AbstractUseCase{
 	
 	public double invoke(OperationBoundary operation) {
 		UserId userId = operation.getInvokedBy().getUserId();
-		UserBoundary user = usersService.login(userId.getSpace(), userId.getEmail());
 		
-		// change user's role to MANAGER to get all the non-active items
-		user.setRole("MANAGER");
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
+		// act as MANAGER to get all the non-active items
+		return this.privilegeContext.runAs(
+				new UserIdPK(userId.getSpace(), userId.getEmail()),
+				UserRole.MANAGER,
+				() -> this.calculateRevenue(operation));
+	}
+	
+	private double calculateRevenue(OperationBoundary operation) {
+		UserId userId = operation.getInvokedBy().getUserId();
 		
 		ItemIdBoundary itemId = operation.getItem().getItemId();
 		if (!this.itemsService.getSpecificItem(userId.getSpace(), userId.getEmail(), itemId.getSpace(), itemId.getId())
-								.getType().equals("report")) {
+								.getType().equals(AttributeSchemas.REPORT)) {
 			throw new IllegalItemTypeException("Item's type is not a report");
 		}
 		
-		if (!operation.getOperationAttributes().containsKey("year") || !operation.getOperationAttributes().containsKey("month")) {
-			throw new EmptyFieldsException("Year and month must be specified");
-		}
-		
-		Date startDate, endDate;
-		int month, year;
-		String stringStartDate, stringEndDate;
-				
+		ReportAttributes report;
 		try {
-			
-			month = Integer.parseInt(operation.getOperationAttributes().get("month").toString());
-			year = Integer.parseInt(operation.getOperationAttributes().get("year").toString());
-			
-			stringStartDate = year + "-" + month + "-01";
-			stringEndDate = year + "-" + (month + 1) + "-01";
-			
-			if (month == 12)
-				stringEndDate = (year + 1) + "-01-01";
-			
-			startDate = new SimpleDateFormat("yyyy-MM-dd").parse(stringStartDate);
-			endDate = new SimpleDateFormat("yyyy-MM-dd").parse(stringEndDate);
+			report = this.attributeSchemas.readReport(operation);
 		} catch (Exception e) {
 			throw new IllegalDateException("Illegal month or year");
 		}
 		
-		String maintenanceType = "vehicle maintenance";
-		
-//		SELECT * WHERE TYPE='vehicle maintenance' AND DATE BETWEEN (start_date AND end_date)
-		List<ItemBoundary> items = this.itemsService
-										.getAllItemsByTypeAndDateBetween(
-												maintenanceType,
-												startDate,
-												endDate);
+		if (report.getYear() == null || report.getMonth() == null) {
+			throw new EmptyFieldsException("Year and month must be specified");
+		}
 		
-		double totalPrice = 0;
+		int month = report.getMonth();
+		int year = report.getYear();
 		
-		for (ItemBoundary item : items) {
-			try {
-				double thisPrice = Double.parseDouble(item.getItemAttributes().get("price").toString());
-				totalPrice += thisPrice;
-			} catch (Exception e) {
-				// do nothing -> this car maintenance does not have a price in it's attributes, continue to others
-			}
-		}
+		if (month < 1 || month > 12)
+			throw new IllegalDateException("Illegal month or year");
 		
-		user.setRole("PLAYER");
-		usersService.updateUser(userId.getSpace(), userId.getEmail(), user);
+//		SELECT SUM(revenue) FROM REVENUE_ROLLUPS WHERE YEAR = year AND MONTH = month
+//		the rollups are maintained on every item write, maintenances without a price are not counted
+		RevenueSummary revenue = this.revenueRollupService.getMonthlyRevenue(year, month);
 		
-		return totalPrice;
+		return revenue.getTotal();
 	}
 }
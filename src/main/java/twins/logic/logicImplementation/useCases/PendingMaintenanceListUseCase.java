@@ -1,6 +1,5 @@
 package twins.logic.logicImplementation.useCases;
 
-import twins.items.ItemBoundary;
 import twins.items.ItemIdBoundary;
 import twins.logic.Exceptions.IllegalItemTypeException;
 import twins.operations.OperationBoundary;
@@ -13,7 +12,7 @@ import org.springframework.stereotype.Service;
 @Service
 public class PendingMaintenanceListUseCase extends AbstractUseCase {
 	
-	public List<ItemBoundary> invoke(OperationBoundary operation, int size, int page) {
+	public List<?> invoke(OperationBoundary operation, int size, int page) {
 		
 		UserId userId = operation.getInvokedBy().getUserId();
 
@@ -27,6 +26,15 @@ public class PendingMaintenanceListUseCase extends AbstractUseCase {
 			throw new IllegalItemTypeException("Item's type is not a report");
 		}
 		
+		// continue after the last maintenance of the previous page when a continuation token is given
+		if (operation.getOperationAttributes().containsKey("after"))
+			return this.itemsService.getAllItemsByTypeAndActiveAfter("vehicle maintenance", true,
+					operation.getOperationAttributes().get("after").toString(), size);
+		
+		// maintenances without their attributes
+		if (Boolean.parseBoolean(String.valueOf(operation.getOperationAttributes().get("summary"))))
+			return this.itemsService.getAllItemSummariesByTypeAndActive("vehicle maintenance", true, size, page);
+		
 		return this.itemsService.getAllItemsByTypeAndActive("vehicle maintenance", true, size, page);
 
 	}
@@ -0,0 +1,101 @@
+package twins.logic.logicImplementation.useCases;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import twins.data.UserRole;
+import twins.logic.Exceptions.IllegalOperationType;
+import twins.operations.OperationBoundary;
+
+// runs a use case with the paging attributes of its operation.
+// shared by the synchronous invocation and the asyncInbox listener
+@Component
+public class UseCaseDispatcher {
+	private FixVehicleUseCase fixVehicle;
+	private GetMaintenancesByDateUseCase getMaintenancesByDate;
+	private GetAllWorkersUseCase getAllWorkers;
+	private GetRevenueReportUseCase getRevenueReport;
+	private PendingMaintenanceListUseCase pendingMaintenance;
+	private BestWorkerUseCase bestWorker;
+
+	@Autowired
+	public void setFixVehicle(FixVehicleUseCase fixVehicle) {
+		this.fixVehicle = fixVehicle;
+	}
+
+	@Autowired
+	public void setGetMaintenancesByDate(GetMaintenancesByDateUseCase getMaintenancesByDate) {
+		this.getMaintenancesByDate = getMaintenancesByDate;
+	}
+
+	@Autowired
+	public void setGetAllWorkers(GetAllWorkersUseCase getAllWorkers) {
+		this.getAllWorkers = getAllWorkers;
+	}
+
+	@Autowired
+	public void setGetRevenueReport(GetRevenueReportUseCase getRevenueReport) {
+		this.getRevenueReport = getRevenueReport;
+	}
+
+	@Autowired
+	public void setPendingMaintenance(PendingMaintenanceListUseCase pendingMaintenance) {
+		this.pendingMaintenance = pendingMaintenance;
+	}
+
+	@Autowired
+	public void setBestWorkerUseCase(BestWorkerUseCase bestWorker) {
+		this.bestWorker = bestWorker;
+	}
+
+	// use cases that continue a listing after the "after" attribute, their pages carry a continuation token
+	public boolean isKeysetCapable(UseCase operationCase) {
+		return operationCase == UseCase.PENDING_MAINTENANCE || operationCase == UseCase.GET_ALL_WORKERS;
+	}
+
+	// the value returned to the client, null for use cases that only change items
+	public Object invoke(UseCase operationCase, OperationBoundary operation, UserRole actualRole) {
+		int size = 20, page = 0;
+		
+		try {
+			size = Integer.parseInt(operation.getOperationAttributes().get("size").toString());
+		} catch (Exception e) {
+			// return to default in case of exception
+			size = 20;
+		}
+		
+		// page is ignored when the operation continues after a continuation token
+		try {
+			page = Integer.parseInt(operation.getOperationAttributes().get("page").toString());
+		} catch (Exception e) {
+			page = 0;
+		}
+		
+		Object returnedValue = null;
+		
+		switch (operationCase) {
+		case FIX_VEHICLE:
+			this.fixVehicle.invoke(operation);
+			break;
+		case MAINTENANCE_BY_DATE:
+			returnedValue = this.getMaintenancesByDate.invoke(operation, size, page);
+			break;
+		case GET_ALL_WORKERS:
+			returnedValue = this.getAllWorkers.invoke(operation, actualRole, size, page);
+			break;
+		case GET_REVENUE_REPORT:
+			returnedValue = this.getRevenueReport.invoke(operation);
+			break;
+		case PENDING_MAINTENANCE:
+			returnedValue = this.pendingMaintenance.invoke(operation, size, page);
+			break;
+		case BEST_WORKER:
+			returnedValue = this.bestWorker.invoke(operation);
+			break;
+		default:
+			throw new IllegalOperationType("Illegal operation type");
+		}
+		
+		return returnedValue;
+	}
+}
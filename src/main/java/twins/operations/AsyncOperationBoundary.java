@@ -0,0 +1,83 @@
+package twins.operations;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+// progress of an operation invoked with /twins/operations/async
+public class AsyncOperationBoundary {
+	private OperationId operationId;
+	private String status;
+	private Date queuedTimestamp;
+	private Date startedTimestamp;
+	private Date finishedTimestamp;
+	private String error;
+	private String result;
+
+	public AsyncOperationBoundary() {
+	}
+
+	public OperationId getOperationId() {
+		return operationId;
+	}
+
+	public void setOperationId(OperationId operationId) {
+		this.operationId = operationId;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public Date getQueuedTimestamp() {
+		return queuedTimestamp;
+	}
+
+	public void setQueuedTimestamp(Date queuedTimestamp) {
+		this.queuedTimestamp = queuedTimestamp;
+	}
+
+	public Date getStartedTimestamp() {
+		return startedTimestamp;
+	}
+
+	public void setStartedTimestamp(Date startedTimestamp) {
+		this.startedTimestamp = startedTimestamp;
+	}
+
+	public Date getFinishedTimestamp() {
+		return finishedTimestamp;
+	}
+
+	public void setFinishedTimestamp(Date finishedTimestamp) {
+		this.finishedTimestamp = finishedTimestamp;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	// stored JSON, written to the response as is
+	@JsonRawValue
+	public String getResult() {
+		return result;
+	}
+
+	public void setResult(String result) {
+		this.result = result;
+	}
+
+	@JsonIgnore
+	public boolean isFinished() {
+		return "DONE".equals(this.status) || "FAILED".equals(this.status);
+	}
+}
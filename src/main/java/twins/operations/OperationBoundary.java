@@ -4,11 +4,19 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import twins.items.Item;
 import twins.users.User;
 
 
 public class OperationBoundary {
+	private static final ObjectMapper jackson = new ObjectMapper();
 
 	private OperationId operationId;
 	private String type;
@@ -16,6 +24,7 @@ public class OperationBoundary {
 	private Date createdTimestamp;
 	private User invokedBy;
 	private Map<String, Object> operationAttributes;
+	private String operationAttributesJson;
 
 	public OperationBoundary() {
 		this.operationId = new OperationId();
@@ -76,12 +85,42 @@ public class OperationBoundary {
 		this.item = item;
 	}
 
+	// the stored JSON is parsed only when the map is needed, responses write it as is
+	@JsonIgnore
 	public Map<String, Object> getOperationAttributes() {
+		if (this.operationAttributesJson != null) {
+			try {
+				this.operationAttributes = jackson.readValue(this.operationAttributesJson, new TypeReference<Map<String, Object>>() {});
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			this.operationAttributesJson = null;
+		}
 		return operationAttributes;
 	}
 
+	@JsonSetter("operationAttributes")
 	public void setOperationAttributes(Map<String, Object> operationAttributes) {
 		this.operationAttributes = operationAttributes;
+		this.operationAttributesJson = null;
+	}
+
+	@JsonGetter("operationAttributes")
+	@JsonRawValue
+	public String getOperationAttributesJson() {
+		if (this.operationAttributesJson != null || this.operationAttributes == null)
+			return this.operationAttributesJson;
+		try {
+			return jackson.writeValueAsString(this.operationAttributes);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@JsonIgnore
+	public void setOperationAttributesJson(String json) {
+		this.operationAttributesJson = json;
+		this.operationAttributes = null;
 	}
 
 	public Date getCreatedTimestamp() {
@@ -2,26 +2,39 @@ package twins.operations;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
-import twins.logic.OperationsService;
+import twins.logic.ContinuationToken;
+import twins.logic.UpdatedOperationsService;
 
 @RestController
 public class OperationController {
-	private OperationsService operationsService;
+	private static final int MAX_WAIT_SECONDS = 60;
+
+	private UpdatedOperationsService operationsService;
 
 	@Autowired
-	public OperationController(OperationsService os) {
+	public OperationController(UpdatedOperationsService os) {
 		super();
 		this.operationsService = os;
 	}
 
 	@RequestMapping(path = "/twins/operations", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-	public Object invokeOperationOnItem(@RequestBody OperationBoundary input) {
-		return this.operationsService.invokeOperation(input);
+	public ResponseEntity<Object> invokeOperationOnItem(@RequestBody OperationBoundary input) {
+		Object returnedValue = this.operationsService.invokeOperation(input);
+		
+		// listing operations can be continued by passing the token as the "after" attribute
+		String token = this.operationsService.getContinuationToken(input, returnedValue);
+		if (token != null)
+			return ResponseEntity.ok().header(ContinuationToken.HEADER, token).body(returnedValue);
+		return ResponseEntity.ok(returnedValue);
 	}
 
 	@RequestMapping(path = "/twins/operations/async", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -29,4 +42,40 @@ public class OperationController {
 		return this.operationsService.invokeAsynchronous(input);
 	}
 
+	// invoke url : /twins/operations/async/{space}/{id}?userSpace={userSpace}&userEmail={userEmail}
+	//		  long polling : /twins/operations/async/{space}/{id}?userSpace={userSpace}&userEmail={userEmail}&wait=30
+	// with wait the answer is sent once the operation is done or failed, or with the current status after wait seconds
+	@RequestMapping(path = "/twins/operations/async/{space}/{id}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public DeferredResult<AsyncOperationBoundary> getAsyncOperation(
+			@PathVariable("space") String space,
+			@PathVariable("id") String id,
+			@RequestParam(name = "userSpace", required = true) String userSpace,
+			@RequestParam(name = "userEmail", required = true) String userEmail,
+			@RequestParam(name = "wait", required = false, defaultValue = "0") int wait) {
+		AsyncOperationBoundary current = this.operationsService.getAsyncOperation(userSpace, userEmail, space, id);
+		
+		int seconds = Math.min(wait, MAX_WAIT_SECONDS);
+		if (seconds <= 0 || current.isFinished()) {
+			DeferredResult<AsyncOperationBoundary> rv = new DeferredResult<>();
+			rv.setResult(current);
+			return rv;
+		}
+		
+		DeferredResult<AsyncOperationBoundary> rv = new DeferredResult<>(seconds * 1000L);
+		Runnable answer = () -> {
+			try {
+				rv.setResult(this.operationsService.getAsyncOperation(userSpace, userEmail, space, id));
+			} catch (RuntimeException e) {
+				rv.setErrorResult(e);
+			}
+		};
+		rv.onTimeout(answer);
+		rv.onCompletion(this.operationsService.onAsyncOperationFinished(space, id, answer));
+		
+		// the operation may have finished before the listener was registered
+		if (this.operationsService.getAsyncOperation(userSpace, userEmail, space, id).isFinished())
+			answer.run();
+		return rv;
+	}
+
 }
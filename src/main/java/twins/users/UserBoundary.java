@@ -23,6 +23,15 @@ public class UserBoundary {
 		this.setUsername(input.getUsername());
 		this.setAvatar(input.getAvatar());
 	}
+
+	public UserBoundary(UserBoundary other) {
+		if (other.getUserId() != null)
+			this.setUserId(new UserId(other.getUserId().getSpace(), other.getUserId().getEmail()));
+		this.setRole(other.getRole());
+		this.setUsername(other.getUsername());
+		this.setAvatar(other.getAvatar());
+	}
+
 	public UserId getUserId() {
 		return userId;
 	}
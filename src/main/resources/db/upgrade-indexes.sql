@@ -0,0 +1,20 @@
+-- Indexes declared on the JPA entities (ItemEntity, OperationEntity, UserEntity, RevenueRollupEntity, AsyncOperationEntity).
+-- spring.jpa.hibernate.ddl-auto=update creates missing indexes on startup,
+-- run this script on databases that are not managed by hibernate before deploying.
+
+CREATE INDEX IDX_ITEMS_CREATED ON items (created_timestamp, id, space);
+CREATE INDEX IDX_ITEMS_TYPE_CREATED ON items (type, created_timestamp);
+CREATE INDEX IDX_ITEMS_TYPE_ACTIVE_CREATED ON items (type, active, created_timestamp);
+CREATE INDEX IDX_ITEMS_ACTIVE_CREATED ON items (active, created_timestamp, id, space);
+CREATE INDEX IDX_ITEMS_PARENT_CREATED ON items (parent_id, parent_space, created_timestamp);
+-- ancestor_path alone already fills the 3072 byte InnoDB key limit under utf8mb4, depth is filtered on the rows
+CREATE INDEX IDX_ITEMS_ANCESTOR_PATH ON items (ancestor_path);
+
+CREATE INDEX IDX_OPERATIONS_CREATED ON operations (created_timestamp, operation_id, operation_space);
+
+CREATE INDEX IDX_USERS_ROLE_USERNAME ON users (role, username);
+CREATE INDEX IDX_USERS_USERNAME ON users (username, email, space);
+
+CREATE INDEX IDX_REVENUE_ROLLUPS_MONTH ON revenue_rollups (year, month);
+
+CREATE INDEX IDX_ASYNC_OPERATIONS_FINISHED ON async_operations (finished_timestamp);
@@ -0,0 +1,180 @@
+package twins;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestTemplate;
+
+import twins.items.Item;
+import twins.items.ItemBoundary;
+import twins.items.ItemIdBoundary;
+import twins.items.Location;
+import twins.logic.logicImplementation.useCases.UseCaseDispatcher;
+import twins.operations.OperationBoundary;
+import twins.users.User;
+import twins.users.UserBoundary;
+
+// four consumers of asyncInbox, the use cases are replaced by a slow stand-in that records when they ran.
+// the embedded broker is its own and is stopped after the class, vm://localhost falls back to any running
+// broker, so the other test contexts would otherwise hand their operations to the stand-in
+@DirtiesContext
+@SpringBootTest(classes = Application.class, webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = {
+				"twins.async.concurrency=4-4",
+				"spring.activemq.broker-url=vm://asyncOperationOrder?broker.persistent=false" })
+public class TestAsyncOperationOrder {
+	private static final int OPERATIONS_PER_ITEM = 4;
+	private static final long OPERATION_MILLIS = 300;
+
+	private int port;
+	private RestTemplate restTemplate;
+	private UserBoundary manager;
+	private List<Execution> executions;
+
+	@MockBean
+	private UseCaseDispatcher useCaseDispatcher;
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void initConstruct() {
+		this.restTemplate = new RestTemplate();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		Map<String, Object> newUser = new HashMap<>();
+		newUser.put("email", UUID.randomUUID() + "@manager.com");
+		newUser.put("role", "MANAGER");
+		newUser.put("username", "manager");
+		newUser.put("avatar", "M");
+		this.manager = this.restTemplate.postForObject(this.url("/twins/users"), newUser, UserBoundary.class);
+
+		this.executions = Collections.synchronizedList(new ArrayList<>());
+		doAnswer(invocation -> {
+			OperationBoundary operation = invocation.getArgument(1);
+			long start = System.nanoTime();
+			Thread.sleep(OPERATION_MILLIS);
+			this.executions.add(new Execution(
+					operation.getItem().getItemId().getId(),
+					(Integer) operation.getOperationAttributes().get("sequence"),
+					start,
+					System.nanoTime()));
+			return null;
+		}).when(this.useCaseDispatcher).invoke(any(), any(), any());
+	}
+
+	private String url(String path) {
+		return "http://localhost:" + this.port + path;
+	}
+
+	private ItemBoundary createReport(String name) {
+		Map<String, Object> item = new HashMap<>();
+		item.put("type", "report");
+		item.put("name", name);
+		item.put("active", true);
+		item.put("location", new Location(0, 0));
+		return this.restTemplate.postForObject(
+				this.url("/twins/items/" + this.manager.getUserId().getSpace() + "/" + this.manager.getUserId().getEmail()),
+				item, ItemBoundary.class);
+	}
+
+	private OperationBoundary invokeAsync(ItemBoundary report, int sequence) {
+		OperationBoundary operation = new OperationBoundary();
+		operation.setType("report");
+		operation.setInvokedBy(new User(this.manager.getUserId()));
+		operation.setItem(new Item(new ItemIdBoundary(report.getItemId().getSpace(), report.getItemId().getId())));
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("operationName", "GET_ALL_WORKERS");
+		attributes.put("userType", "MANAGER");
+		attributes.put("sequence", sequence);
+		operation.setOperationAttributes(attributes);
+		return this.restTemplate.postForObject(this.url("/twins/operations/async"), operation, OperationBoundary.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private String waitFor(OperationBoundary invoked) {
+		Map<String, Object> status = this.restTemplate.getForObject(
+				this.url("/twins/operations/async/" + invoked.getOperationId().getSpace() + "/" + invoked.getOperationId().getId()
+						+ "?userSpace=" + this.manager.getUserId().getSpace()
+						+ "&userEmail=" + this.manager.getUserId().getEmail()
+						+ "&wait=30"),
+				Map.class);
+		return (String) status.get("status");
+	}
+
+	private List<Execution> executionsOf(ItemBoundary item) {
+		synchronized (this.executions) {
+			return this.executions.stream()
+					.filter(execution -> execution.itemId.equals(item.getItemId().getId()))
+					.sorted((a, b) -> Long.compare(a.start, b.start))
+					.collect(Collectors.toList());
+		}
+	}
+
+	@Test
+	public void testOperationsOfAnItemRunInOrderWhileOtherItemsRunInParallel() throws Exception {
+		// given two items
+		ItemBoundary first = this.createReport("first");
+		ItemBoundary second = this.createReport("second");
+
+		// when their operations are invoked interleaved
+		List<OperationBoundary> invoked = new ArrayList<>();
+		for (int sequence = 0; sequence < OPERATIONS_PER_ITEM; sequence++) {
+			invoked.add(this.invokeAsync(first, sequence));
+			invoked.add(this.invokeAsync(second, sequence));
+		}
+		for (OperationBoundary operation : invoked)
+			assertThat(this.waitFor(operation)).isEqualTo("DONE");
+
+		// then the operations of each item ran one after the other, in the order they were invoked
+		List<Execution> firstExecutions = this.executionsOf(first);
+		List<Execution> secondExecutions = this.executionsOf(second);
+		for (List<Execution> itemExecutions : Arrays.asList(firstExecutions, secondExecutions)) {
+			assertThat(itemExecutions).extracting(execution -> execution.sequence).containsExactly(0, 1, 2, 3);
+			for (int i = 1; i < itemExecutions.size(); i++)
+				assertThat(itemExecutions.get(i).start).isGreaterThanOrEqualTo(itemExecutions.get(i - 1).end);
+		}
+
+		// and the two items did not wait for each other
+		boolean overlapped = firstExecutions.stream().anyMatch(a ->
+				secondExecutions.stream().anyMatch(b -> a.start < b.end && b.start < a.end));
+		assertThat(overlapped).isTrue();
+	}
+
+	private static class Execution {
+		private String itemId;
+		private int sequence;
+		private long start;
+		private long end;
+
+		public Execution(String itemId, int sequence, long start, long end) {
+			this.itemId = itemId;
+			this.sequence = sequence;
+			this.start = start;
+			this.end = end;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package twins;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.web.client.RestTemplate;
+
+import twins.items.Item;
+import twins.items.ItemBoundary;
+import twins.items.ItemIdBoundary;
+import twins.items.Location;
+import twins.operations.OperationBoundary;
+import twins.users.User;
+import twins.users.UserBoundary;
+
+@SpringBootTest(classes = Application.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+public class TestAsyncOperations {
+	private int port;
+	private RestTemplate restTemplate;
+	private UserBoundary manager;
+	private ItemBoundary report;
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void initConstruct() {
+		this.restTemplate = new RestTemplate();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		Map<String, Object> newUser = new HashMap<>();
+		newUser.put("email", UUID.randomUUID() + "@manager.com");
+		newUser.put("role", "MANAGER");
+		newUser.put("username", "manager");
+		newUser.put("avatar", "M");
+		this.manager = this.restTemplate.postForObject(this.url("/twins/users"), newUser, UserBoundary.class);
+
+		Map<String, Object> item = new HashMap<>();
+		item.put("type", "report");
+		item.put("name", "workers");
+		item.put("active", true);
+		item.put("location", new Location(0, 0));
+		this.report = this.restTemplate.postForObject(
+				this.url("/twins/items/" + this.manager.getUserId().getSpace() + "/" + this.manager.getUserId().getEmail()),
+				item, ItemBoundary.class);
+	}
+
+	private String url(String path) {
+		return "http://localhost:" + this.port + path;
+	}
+
+	private OperationBoundary operation(String operationName) {
+		OperationBoundary rv = new OperationBoundary();
+		rv.setType("report");
+		rv.setInvokedBy(new User(this.manager.getUserId()));
+		rv.setItem(new Item(new ItemIdBoundary(this.report.getItemId().getSpace(), this.report.getItemId().getId())));
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("operationName", operationName);
+		attributes.put("userType", "MANAGER");
+		attributes.put("size", 1);
+		attributes.put("year", 2021);
+		attributes.put("month", 6);
+		rv.setOperationAttributes(attributes);
+		return rv;
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLongPollingAnswersOnceTheOperationIsDone() throws Exception {
+		// given an operation invoked asynchronously
+		OperationBoundary invoked = this.restTemplate.postForObject(
+				this.url("/twins/operations/async"), this.operation("GET_ALL_WORKERS"), OperationBoundary.class);
+		assertThat(invoked.getOperationId()).isNotNull();
+
+		// when its status is polled with a wait
+		Map<String, Object> status = this.restTemplate.getForObject(
+				this.url("/twins/operations/async/" + invoked.getOperationId().getSpace() + "/" + invoked.getOperationId().getId()
+						+ "?userSpace=" + this.manager.getUserId().getSpace()
+						+ "&userEmail=" + this.manager.getUserId().getEmail()
+						+ "&wait=30"),
+				Map.class);
+
+		// then the answer comes once the operation is done, with its result
+		assertThat(status.get("status")).isEqualTo("DONE");
+		assertThat(status.get("finishedTimestamp")).isNotNull();
+		assertThat((List<Object>) status.get("result")).isNotEmpty();
+	}
+}
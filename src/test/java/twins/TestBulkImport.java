@@ -0,0 +1,117 @@
+package twins;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import twins.items.ItemBoundary;
+import twins.items.ItemImportResult;
+import twins.users.UserBoundary;
+
+@SpringBootTest(classes = Application.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+public class TestBulkImport {
+	private int port;
+	private RestTemplate restTemplate;
+	private UserBoundary manager;
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void initConstruct() {
+		this.restTemplate = new RestTemplate();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		Map<String, Object> newUser = new HashMap<>();
+		newUser.put("email", UUID.randomUUID() + "@manager.com");
+		newUser.put("role", "MANAGER");
+		newUser.put("username", "manager");
+		newUser.put("avatar", "M");
+		this.manager = this.restTemplate.postForObject(this.url("/twins/users"), newUser, UserBoundary.class);
+	}
+
+	private String url(String path) {
+		return "http://localhost:" + this.port + path;
+	}
+
+	private String userPath() {
+		return this.manager.getUserId().getSpace() + "/" + this.manager.getUserId().getEmail();
+	}
+
+	@Test
+	public void testBulkImportReportsEveryRow() throws Exception {
+		// given an array with a row that has no name between two valid rows
+		String items = "["
+				+ "{\"type\":\"vehicle item\",\"name\":\"wheel\",\"active\":true,\"location\":{\"lat\":0,\"lng\":0}},"
+				+ "{\"type\":\"vehicle item\",\"active\":true,\"location\":{\"lat\":0,\"lng\":0}},"
+				+ "{\"type\":\"vehicle item\",\"name\":\"door\",\"active\":true,\"location\":{\"lat\":0,\"lng\":0}}"
+				+ "]";
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		// when it is imported
+		ItemImportResult[] results = this.restTemplate.postForObject(
+				this.url("/twins/items/" + this.userPath() + "/bulk"),
+				new HttpEntity<>(items, headers),
+				ItemImportResult[].class);
+
+		// then the valid rows are created and the invalid one is reported by its index
+		Arrays.sort(results, Comparator.comparingInt(ItemImportResult::getIndex));
+		assertThat(results).hasSize(3);
+		assertThat(results[0].getItemId()).isNotNull();
+		assertThat(results[1].getItemId()).isNull();
+		assertThat(results[1].getError()).contains("name");
+		assertThat(results[2].getItemId()).isNotNull();
+
+		// and the created rows can be read
+		ItemBoundary door = this.restTemplate.getForObject(
+				this.url("/twins/items/" + this.userPath() + "/" + results[2].getItemId().getSpace() + "/" + results[2].getItemId().getId()),
+				ItemBoundary.class);
+		assertThat(door.getName()).isEqualTo("door");
+	}
+
+	@Test
+	public void testBulkImportOfNewlineDelimitedItems() throws Exception {
+		// given one item per line followed by a line that is not JSON
+		String items = "{\"type\":\"vehicle item\",\"name\":\"wheel\",\"active\":true,\"location\":{\"lat\":0,\"lng\":0}}\n"
+				+ "{\"type\":\"vehicle item\",\"name\":\"door\",\"active\":true,\"location\":{\"lat\":0,\"lng\":0}}\n"
+				+ "{broken\n";
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.valueOf("application/x-ndjson"));
+
+		// when it is imported
+		ItemImportResult[] results = this.restTemplate.postForObject(
+				this.url("/twins/items/" + this.userPath() + "/bulk"),
+				new HttpEntity<>(items, headers),
+				ItemImportResult[].class);
+
+		// then the rows before the broken line are created and the import reports where it stopped
+		Arrays.sort(results, Comparator.comparingInt(ItemImportResult::getIndex));
+		assertThat(results.length).isGreaterThanOrEqualTo(3);
+		assertThat(results[0].getItemId()).isNotNull();
+		assertThat(results[1].getItemId()).isNotNull();
+		assertThat(results[2].getIndex()).isEqualTo(2);
+		assertThat(results[2].getItemId()).isNull();
+		assertThat(results[2].getError()).isNotNull();
+	}
+}
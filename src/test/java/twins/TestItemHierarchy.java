@@ -0,0 +1,206 @@
+package twins;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import twins.data.dao.ItemsDao;
+import twins.items.ItemBoundary;
+import twins.items.ItemIdBoundary;
+import twins.items.ItemTreeNode;
+import twins.items.Location;
+import twins.logic.UpdatedItemsService;
+import twins.logic.initializers.ItemHierarchyInitializer;
+import twins.users.UserBoundary;
+
+@SpringBootTest(classes = Application.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+public class TestItemHierarchy {
+	private int port;
+	private RestTemplate restTemplate;
+	private UserBoundary manager;
+	private ItemsDao itemsDao;
+	private UpdatedItemsService itemsService;
+	private ItemHierarchyInitializer itemHierarchyInitializer;
+	private TransactionTemplate transactionTemplate;
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@Autowired
+	public void setItemsDao(ItemsDao itemsDao) {
+		this.itemsDao = itemsDao;
+	}
+
+	@Autowired
+	public void setItemsService(UpdatedItemsService itemsService) {
+		this.itemsService = itemsService;
+	}
+
+	@Autowired
+	public void setItemHierarchyInitializer(ItemHierarchyInitializer itemHierarchyInitializer) {
+		this.itemHierarchyInitializer = itemHierarchyInitializer;
+	}
+
+	@Autowired
+	public void setTransactionManager(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@PostConstruct
+	public void initConstruct() {
+		this.restTemplate = new RestTemplate();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		Map<String, Object> newUser = new HashMap<>();
+		newUser.put("email", UUID.randomUUID() + "@manager.com");
+		newUser.put("role", "MANAGER");
+		newUser.put("username", "manager");
+		newUser.put("avatar", "M");
+		this.manager = this.restTemplate.postForObject(this.url("/twins/users"), newUser, UserBoundary.class);
+	}
+
+	private String url(String path) {
+		return "http://localhost:" + this.port + path;
+	}
+
+	private String userPath() {
+		return this.manager.getUserId().getSpace() + "/" + this.manager.getUserId().getEmail();
+	}
+
+	private ItemBoundary createItem(String name) {
+		Map<String, Object> item = new HashMap<>();
+		item.put("type", "vehicle item");
+		item.put("name", name);
+		item.put("active", true);
+		item.put("location", new Location(0, 0));
+		return this.restTemplate.postForObject(this.url("/twins/items/" + this.userPath()), item, ItemBoundary.class);
+	}
+
+	private void attach(ItemBoundary parent, ItemBoundary child) {
+		this.restTemplate.put(
+				this.url("/twins/items/" + this.userPath() + "/" + parent.getItemId().getSpace() + "/" + parent.getItemId().getId() + "/children"),
+				new ItemIdBoundary(child.getItemId().getSpace(), child.getItemId().getId()));
+	}
+
+	private List<String> ids(ItemBoundary[] items) {
+		return Arrays.stream(items).map(item -> item.getItemId().getId()).collect(Collectors.toList());
+	}
+
+	private List<String> relatives(ItemBoundary item, String relation) {
+		return this.ids(this.restTemplate.getForObject(
+				this.url("/twins/items/" + this.userPath() + "/" + item.getItemId().getSpace() + "/" + item.getItemId().getId() + "/" + relation),
+				ItemBoundary[].class));
+	}
+
+	@Test
+	public void testMovedItemTakesItsSubtreeAlong() throws Exception {
+		// given a grandchild under a child under the first parent
+		ItemBoundary first = this.createItem("first");
+		ItemBoundary second = this.createItem("second");
+		ItemBoundary child = this.createItem("child");
+		ItemBoundary grandchild = this.createItem("grandchild");
+		this.attach(first, child);
+		this.attach(child, grandchild);
+		assertThat(this.relatives(grandchild, "ancestors"))
+				.containsExactly(child.getItemId().getId(), first.getItemId().getId());
+
+		// when the child is moved under the second parent
+		this.attach(second, child);
+
+		// then only the second parent has it, and the grandchild moved with it
+		assertThat(this.relatives(first, "children")).isEmpty();
+		assertThat(this.relatives(second, "children")).containsExactly(child.getItemId().getId());
+		assertThat(this.relatives(child, "parents")).containsExactly(second.getItemId().getId());
+		assertThat(this.relatives(grandchild, "ancestors"))
+				.containsExactly(child.getItemId().getId(), second.getItemId().getId());
+	}
+
+	@Test
+	public void testItemCanNotBeAttachedUnderItsDescendant() throws Exception {
+		// given a chain of three items
+		ItemBoundary root = this.createItem("root");
+		ItemBoundary child = this.createItem("child");
+		ItemBoundary grandchild = this.createItem("grandchild");
+		this.attach(root, child);
+		this.attach(child, grandchild);
+
+		// then attaching an item under itself or under its descendant is rejected
+		assertThatThrownBy(() -> this.attach(root, root)).isInstanceOf(HttpClientErrorException.BadRequest.class);
+		assertThatThrownBy(() -> this.attach(grandchild, root)).isInstanceOf(HttpClientErrorException.BadRequest.class);
+
+		// and the hierarchy is unchanged
+		assertThat(this.relatives(root, "ancestors")).isEmpty();
+		assertThat(this.relatives(grandchild, "ancestors"))
+				.containsExactly(child.getItemId().getId(), root.getItemId().getId());
+	}
+
+	@Test
+	public void testSubtreeStopsAtTheDepthLimit() throws Exception {
+		// given a chain of four items
+		ItemBoundary root = this.createItem("root");
+		ItemBoundary child = this.createItem("child");
+		ItemBoundary grandchild = this.createItem("grandchild");
+		ItemBoundary greatGrandchild = this.createItem("great grandchild");
+		this.attach(root, child);
+		this.attach(child, grandchild);
+		this.attach(grandchild, greatGrandchild);
+
+		// when the subtree of the root is read two levels deep
+		ItemTreeNode tree = this.restTemplate.getForObject(
+				this.url("/twins/items/" + this.userPath() + "/" + root.getItemId().getSpace() + "/" + root.getItemId().getId() + "/subtree?depth=2"),
+				ItemTreeNode.class);
+
+		// then it holds the child and the grandchild, but not the great grandchild
+		assertThat(tree.getItem().getItemId().getId()).isEqualTo(root.getItemId().getId());
+		assertThat(tree.getChildren()).hasSize(1);
+		ItemTreeNode childNode = tree.getChildren().get(0);
+		assertThat(childNode.getItem().getItemId().getId()).isEqualTo(child.getItemId().getId());
+		assertThat(childNode.getChildren()).hasSize(1);
+		ItemTreeNode grandchildNode = childNode.getChildren().get(0);
+		assertThat(grandchildNode.getItem().getItemId().getId()).isEqualTo(grandchild.getItemId().getId());
+		assertThat(grandchildNode.getChildren()).isEmpty();
+	}
+
+	@Test
+	public void testItemsWithoutAncestorPathAreBackfilledAtStartup() throws Exception {
+		// given a grandchild whose ancestor paths were never set, like an item created before the column
+		ItemBoundary root = this.createItem("root");
+		ItemBoundary child = this.createItem("child");
+		ItemBoundary grandchild = this.createItem("grandchild");
+		this.attach(root, child);
+		this.attach(child, grandchild);
+		this.transactionTemplate.execute(status -> this.itemsDao.resetAncestorPaths());
+		assertThat(this.itemsService.isHierarchyRebuildNeeded()).isTrue();
+
+		// when the application starts
+		this.itemHierarchyInitializer.run();
+
+		// then every item has its path again
+		assertThat(this.itemsService.isHierarchyRebuildNeeded()).isFalse();
+		assertThat(this.relatives(grandchild, "ancestors"))
+				.containsExactly(child.getItemId().getId(), root.getItemId().getId());
+	}
+}
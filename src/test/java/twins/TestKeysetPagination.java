@@ -0,0 +1,140 @@
+package twins;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import twins.items.Item;
+import twins.items.ItemBoundary;
+import twins.items.ItemIdBoundary;
+import twins.items.Location;
+import twins.logic.ContinuationToken;
+import twins.operations.OperationBoundary;
+import twins.users.User;
+import twins.users.UserBoundary;
+
+@SpringBootTest(classes = Application.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+public class TestKeysetPagination {
+	private int port;
+	private RestTemplate restTemplate;
+	private UserBoundary manager;
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void initConstruct() {
+		this.restTemplate = new RestTemplate();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		Map<String, Object> newUser = new HashMap<>();
+		newUser.put("email", UUID.randomUUID() + "@manager.com");
+		newUser.put("role", "MANAGER");
+		newUser.put("username", "manager");
+		newUser.put("avatar", "M");
+		this.manager = this.restTemplate.postForObject(this.url("/twins/users"), newUser, UserBoundary.class);
+	}
+
+	private String url(String path) {
+		return "http://localhost:" + this.port + path;
+	}
+
+	private String userPath() {
+		return this.manager.getUserId().getSpace() + "/" + this.manager.getUserId().getEmail();
+	}
+
+	private ItemBoundary createItem(String type, String name) {
+		Map<String, Object> item = new HashMap<>();
+		item.put("type", type);
+		item.put("name", name);
+		item.put("active", true);
+		item.put("location", new Location(0, 0));
+		return this.restTemplate.postForObject(this.url("/twins/items/" + this.userPath()), item, ItemBoundary.class);
+	}
+
+	private List<String> ids(ItemBoundary[] items) {
+		return Arrays.stream(items).map(item -> item.getItemId().getId()).collect(Collectors.toList());
+	}
+
+	private OperationBoundary operation(ItemBoundary report, String operationName) {
+		OperationBoundary rv = new OperationBoundary();
+		rv.setType("report");
+		rv.setInvokedBy(new User(this.manager.getUserId()));
+		rv.setItem(new Item(new ItemIdBoundary(report.getItemId().getSpace(), report.getItemId().getId())));
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("operationName", operationName);
+		attributes.put("userType", "MANAGER");
+		attributes.put("size", 1);
+		attributes.put("year", 2021);
+		attributes.put("month", 6);
+		rv.setOperationAttributes(attributes);
+		return rv;
+	}
+
+	@Test
+	public void testContinuationTokenContinuesThePage() throws Exception {
+		// given more items than a page
+		for (int i = 0; i < 5; i++)
+			this.createItem("vehicle item", "item " + i);
+
+		// when the first page of two is continued by its token
+		ResponseEntity<ItemBoundary[]> first = this.restTemplate.getForEntity(
+				this.url("/twins/items/" + this.userPath() + "?size=2"), ItemBoundary[].class);
+		String token = first.getHeaders().getFirst(ContinuationToken.HEADER);
+		ItemBoundary[] second = this.restTemplate.getForObject(
+				this.url("/twins/items/" + this.userPath() + "?size=2&after=" + token), ItemBoundary[].class);
+
+		// then the two pages are the first four items in order, without gaps or repeats
+		ItemBoundary[] four = this.restTemplate.getForObject(
+				this.url("/twins/items/" + this.userPath() + "?size=4"), ItemBoundary[].class);
+		List<String> continued = new ArrayList<>(this.ids(first.getBody()));
+		continued.addAll(this.ids(second));
+		assertThat(token).isNotNull();
+		assertThat(continued).isEqualTo(this.ids(four));
+	}
+
+	@Test
+	public void testIllegalContinuationTokenIsRejected() throws Exception {
+		assertThatThrownBy(() -> this.restTemplate.getForObject(
+				this.url("/twins/items/" + this.userPath() + "?size=2&after=not-a-token"), ItemBoundary[].class))
+				.isInstanceOf(HttpClientErrorException.class);
+	}
+
+	@Test
+	public void testContinuationTokenOnlyForKeysetUseCases() throws Exception {
+		// given a report item
+		ItemBoundary report = this.createItem("report", "workers");
+
+		// when a listing that reads "after" and a report are invoked
+		ResponseEntity<Object> workers = this.restTemplate.postForEntity(
+				this.url("/twins/operations"), this.operation(report, "GET_ALL_WORKERS"), Object.class);
+		ResponseEntity<Object> revenue = this.restTemplate.postForEntity(
+				this.url("/twins/operations"), this.operation(report, "GET_REVENUE_REPORT"), Object.class);
+
+		// then only the listing can be continued
+		assertThat(workers.getHeaders().getFirst(ContinuationToken.HEADER)).isNotNull();
+		assertThat(revenue.getHeaders().getFirst(ContinuationToken.HEADER)).isNull();
+	}
+}
@@ -0,0 +1,42 @@
+package twins.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class TestAncestorPath {
+
+	@Test
+	public void testPathOfAGrandchild() throws Exception {
+		// given a root item and its child
+		ItemIdPK root = new ItemIdPK("space", "root");
+		ItemIdPK child = new ItemIdPK("space", "child");
+
+		// when the path of the grandchild is built
+		String path = AncestorPath.childPath(AncestorPath.childPath(AncestorPath.ROOT, root), child);
+
+		// then it lists the ancestors from the root down, the parent first when read back
+		assertThat(path).isEqualTo("/space@@root/space@@child/");
+		assertThat(AncestorPath.ancestors(path)).containsExactly(child, root);
+		assertThat(AncestorPath.parent(path)).isEqualTo(child);
+		assertThat(AncestorPath.depth(path)).isEqualTo(2);
+	}
+
+	@Test
+	public void testRootItem() throws Exception {
+		// an item without parent has no ancestors
+		assertThat(AncestorPath.ancestors(AncestorPath.ROOT)).isEmpty();
+		assertThat(AncestorPath.ancestors(null)).isEmpty();
+		assertThat(AncestorPath.parent(AncestorPath.ROOT)).isNull();
+		assertThat(AncestorPath.depth(AncestorPath.ROOT)).isEqualTo(0);
+	}
+
+	@Test
+	public void testDescendantsPatternEscapesLikeCharacters() throws Exception {
+		// given a path whose keys contain the LIKE wildcards and the escape character
+		String path = AncestorPath.childPath(AncestorPath.ROOT, new ItemIdPK("my_space", "50%!"));
+
+		// then the pattern matches them literally and everything below them
+		assertThat(AncestorPath.startsWith(path)).isEqualTo("/my!_space@@50!%!!/%");
+	}
+}
@@ -0,0 +1,170 @@
+package twins.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class TestAttributesStorage {
+	private static final String SMALL = "{\"price\":120.5,\"workerEmail\":\"a@mail.com\",\"fixed\":true}";
+
+	private static String large() {
+		StringBuilder rv = new StringBuilder("{\"parts\":[");
+		for (int i = 0; i < 200; i++)
+			rv.append(i == 0 ? "" : ",").append("{\"name\":\"part ").append(i).append("\",\"price\":").append(i).append("}");
+		return rv.append("]}").toString();
+	}
+
+	private static AttributesStorage storage(String mode, int compressionThreshold) {
+		AttributesStorage rv = new AttributesStorage();
+		rv.setStorage(mode);
+		rv.setCompressionThreshold(compressionThreshold);
+		return rv;
+	}
+
+	private static ItemEntity item(String type) {
+		ItemEntity rv = new ItemEntity();
+		rv.setType(type);
+		return rv;
+	}
+
+	@Test
+	public void testTextStorageKeepsTheText() throws Exception {
+		// given the default storage
+		AttributesStorage storage = storage("text", 0);
+		ItemEntity item = item("vehicle");
+
+		// when attributes are written
+		storage.write(item, SMALL);
+
+		// then they stay in the text column as they are
+		assertThat(item.getItemAttributes()).isEqualTo(SMALL);
+		assertThat(item.getItemAttributesBinary()).isNull();
+		assertThat(storage.read(item)).isEqualTo(SMALL);
+	}
+
+	@Test
+	public void testBinaryStorageRoundTrip() throws Exception {
+		// given the binary storage without compression
+		AttributesStorage storage = storage("binary", 0);
+		ItemEntity item = item("vehicle");
+
+		// when attributes are written
+		storage.write(item, SMALL);
+
+		// then they are stored as Smile and read back as the same JSON
+		assertThat(item.getItemAttributes()).isNull();
+		assertThat(item.getItemAttributesBinary()[0]).isEqualTo(AttributesStorage.SMILE);
+		assertThat(storage.read(item)).isEqualTo(SMALL);
+	}
+
+	@Test
+	public void testDeflatedSmileRoundTrip() throws Exception {
+		// given the binary storage compressing values over 64 bytes
+		AttributesStorage storage = storage("binary", 64);
+		ItemEntity item = item("vehicle");
+		String json = large();
+
+		// when a large value is written
+		storage.write(item, json);
+
+		// then it is deflated Smile, smaller than the JSON, and read back unchanged
+		byte[] stored = item.getItemAttributesBinary();
+		assertThat(stored[0]).isEqualTo(AttributesStorage.DEFLATE_SMILE);
+		assertThat(stored.length).isLessThan(json.length());
+		assertThat(storage.read(item)).isEqualTo(json);
+		assertThat(storage.getStatistics().get("compressedValues")).isEqualTo(1L);
+	}
+
+	@Test
+	public void testDeflatedJsonRoundTrip() throws Exception {
+		// given the text storage compressing values over 64 bytes
+		AttributesStorage storage = storage("text", 64);
+		ItemEntity large = item("vehicle");
+		ItemEntity small = item("vehicle");
+		String json = large().replace(",", ", ");
+
+		// when a large and a small value are written
+		storage.write(large, json);
+		storage.write(small, SMALL);
+
+		// then only the large one is deflated, its text is read back character for character
+		assertThat(large.getItemAttributesBinary()[0]).isEqualTo(AttributesStorage.DEFLATE_JSON);
+		assertThat(large.getItemAttributes()).isNull();
+		assertThat(storage.read(large)).isEqualTo(json);
+		assertThat(small.getItemAttributesBinary()).isNull();
+		assertThat(storage.read(small)).isEqualTo(SMALL);
+	}
+
+	@Test
+	public void testStoredValuesAreReadableInEveryMode() throws Exception {
+		// given values written in binary and compressed form
+		ItemEntity smile = item("vehicle");
+		ItemEntity deflated = item("vehicle");
+		storage("binary", 0).write(smile, SMALL);
+		storage("binary", 64).write(deflated, large());
+
+		// when the storage is switched back to text without compression
+		AttributesStorage text = storage("text", 0);
+
+		// then the existing rows are still read by their marker
+		assertThat(text.read(smile)).isEqualTo(SMALL);
+		assertThat(text.read(deflated)).isEqualTo(large());
+	}
+
+	@Test
+	public void testTextTypesAreNeverEncoded() throws Exception {
+		// given a type configured to stay text
+		AttributesStorage storage = storage("binary", 0);
+		storage.setTextTypes(new String[] { "report" });
+		ItemEntity item = item("report");
+
+		// when its attributes are written
+		storage.write(item, large());
+
+		// then they are kept in the text column
+		assertThat(item.getItemAttributes()).isEqualTo(large());
+		assertThat(item.getItemAttributesBinary()).isNull();
+	}
+
+	@Test
+	public void testUnknownMarkerIsRejected() throws Exception {
+		// given a binary value with a marker no storage writes
+		AttributesStorage storage = storage("binary", 0);
+		ItemEntity unknown = item("vehicle");
+		unknown.setItemAttributesBinary(new byte[] { 9, 1, 2 });
+
+		// then reading it fails instead of returning partial attributes
+		assertThatThrownBy(() -> storage.read(unknown)).hasMessageContaining("Unknown attributes format");
+	}
+
+	@Test
+	public void testTruncatedDeflatedValueIsRejected() throws Exception {
+		// given a deflated value that lost its end
+		AttributesStorage storage = storage("binary", 64);
+		ItemEntity truncated = item("vehicle");
+		storage.write(truncated, large());
+		byte[] stored = truncated.getItemAttributesBinary();
+		truncated.setItemAttributesBinary(Arrays.copyOf(stored, stored.length / 2));
+
+		// then reading it fails instead of returning partial attributes
+		assertThatThrownBy(() -> storage.read(truncated)).hasMessageContaining("inflate");
+	}
+
+	@Test
+	public void testOperationAttributesRoundTrip() throws Exception {
+		// given the binary storage compressing large values
+		AttributesStorage storage = storage("binary", 64);
+		OperationEntity operation = new OperationEntity();
+
+		// when operation attributes are written
+		storage.write(operation, large());
+
+		// then they are read back unchanged
+		assertThat(operation.getOperationAttributes()).isNull();
+		assertThat(storage.read(operation)).isEqualTo(large());
+	}
+
+}
@@ -0,0 +1,17 @@
+package twins.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class TestIndexCoverageChecker {
+
+	@Test
+	public void testEveryDaoQueryIsRegistered() throws Exception {
+		// given the access patterns of the checker
+		IndexCoverageChecker checker = new IndexCoverageChecker();
+
+		// then every query declared on a dao has its filter columns registered
+		assertThat(checker.getUnregisteredQueries()).isEmpty();
+	}
+}
@@ -0,0 +1,85 @@
+package twins.logic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import twins.items.ItemBoundary;
+import twins.items.ItemIdBoundary;
+import twins.logic.Exceptions.IllegalContinuationTokenException;
+import twins.users.UserBoundary;
+import twins.users.UserId;
+
+public class TestContinuationToken {
+
+	@Test
+	public void testItemTokenHoldsTheSortKeys() throws Exception {
+		// given an item
+		ItemBoundary item = new ItemBoundary();
+		item.setItemId(new ItemIdBoundary("2021b.space", "id-1"));
+		item.setCreatedTimestamp(new Date(1623000000000L));
+
+		// when its token is decoded
+		String[] keys = ContinuationToken.decode(ContinuationToken.of(item), 3);
+
+		// then it holds the created timestamp, id and space in the sort order
+		assertThat(keys).containsExactly("1623000000000", "id-1", "2021b.space");
+		assertThat(ContinuationToken.decodeTimestamp(keys[0])).isEqualTo(1623000000000L);
+	}
+
+	@Test
+	public void testTokenOfTheLastElementOfAPage() throws Exception {
+		// given a page of users
+		UserBoundary first = new UserBoundary(new UserId("space", "a@mail.com"));
+		first.setUsername("a");
+		UserBoundary last = new UserBoundary(new UserId("space", "b@mail.com"));
+		last.setUsername("b");
+
+		// when the page is continued
+		String token = ContinuationToken.ofLast(Arrays.asList(first, last));
+
+		// then the token points after its last user
+		assertThat(token).isEqualTo(ContinuationToken.of(last));
+		assertThat(ContinuationToken.decode(token, 3)).containsExactly("b", "b@mail.com", "space");
+	}
+
+	@Test
+	public void testNoTokenWithoutSomethingToContinue() throws Exception {
+		// given an empty page, a missing page and a page of values without sort keys
+		List<Object> empty = new ArrayList<>();
+		List<Object> others = Arrays.asList("report");
+
+		// then no token is created
+		assertThat(ContinuationToken.ofLast(empty)).isNull();
+		assertThat(ContinuationToken.ofLast(null)).isNull();
+		assertThat(ContinuationToken.ofLast(others)).isNull();
+	}
+
+	@Test
+	public void testKeysAreKeptAsIs() throws Exception {
+		// given keys with url and unicode characters
+		String token = ContinuationToken.encode("name with spaces/+=", "mail+tag@mail.com", "\u05d2\u05e8\u05d0\u05d6");
+
+		// then the token is url safe and decodes to the same keys
+		assertThat(token).matches("[A-Za-z0-9_-]+");
+		assertThat(ContinuationToken.decode(token, 3))
+				.containsExactly("name with spaces/+=", "mail+tag@mail.com", "\u05d2\u05e8\u05d0\u05d6");
+	}
+
+	@Test
+	public void testIllegalTokensAreRejected() throws Exception {
+		// a token that is not base64, has another number of keys or a timestamp that is not a number
+		assertThatThrownBy(() -> ContinuationToken.decode("!!!", 3))
+				.isInstanceOf(IllegalContinuationTokenException.class);
+		assertThatThrownBy(() -> ContinuationToken.decode(ContinuationToken.encode("a", "b"), 3))
+				.isInstanceOf(IllegalContinuationTokenException.class);
+		assertThatThrownBy(() -> ContinuationToken.decodeTimestamp("yesterday"))
+				.isInstanceOf(IllegalContinuationTokenException.class);
+	}
+}
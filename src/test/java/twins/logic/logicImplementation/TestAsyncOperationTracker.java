@@ -0,0 +1,155 @@
+package twins.logic.logicImplementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import twins.data.AsyncOperationEntity;
+import twins.data.AsyncOperationStatus;
+import twins.data.OperationIdPK;
+import twins.data.UserIdPK;
+import twins.data.dao.AsyncOperationsDao;
+
+public class TestAsyncOperationTracker {
+	private static final OperationIdPK OPERATION_ID = new OperationIdPK("space", "operation");
+	private static final UserIdPK USER_ID = new UserIdPK("space", "player@mail.com");
+
+	private AsyncOperationTracker tracker;
+	private Map<OperationIdPK, AsyncOperationEntity> rows;
+	private AtomicInteger notified;
+
+	@BeforeEach
+	public void setUp() {
+		// the status rows are kept in a map instead of ASYNC_OPERATIONS
+		this.rows = new HashMap<>();
+		AsyncOperationsDao dao = mock(AsyncOperationsDao.class);
+		when(dao.findById(any())).thenAnswer(invocation -> Optional.ofNullable(this.rows.get(invocation.getArgument(0))));
+		when(dao.save(any(AsyncOperationEntity.class))).thenAnswer(invocation -> {
+			AsyncOperationEntity row = invocation.getArgument(0);
+			this.rows.put(row.getOperationIdPK(), row);
+			return row;
+		});
+
+		this.tracker = new AsyncOperationTracker();
+		this.tracker.setAsyncOperationsDao(dao);
+		this.tracker.setTransactionManager(mock(PlatformTransactionManager.class));
+
+		this.notified = new AtomicInteger();
+		this.tracker.addListener(OPERATION_ID, this.notified::incrementAndGet);
+	}
+
+	private AsyncOperationEntity status() {
+		return this.rows.get(OPERATION_ID);
+	}
+
+	@Test
+	public void testDoneOperation() throws Exception {
+		// given a queued operation that starts running
+		this.tracker.queued(OPERATION_ID, USER_ID);
+		assertThat(status().getStatus()).isEqualTo(AsyncOperationStatus.QUEUED);
+		assertThat(status().getUserEmail()).isEqualTo(USER_ID.getEmail());
+
+		this.tracker.running(OPERATION_ID);
+		assertThat(status().getStatus()).isEqualTo(AsyncOperationStatus.RUNNING);
+		assertThat(status().isFinished()).isFalse();
+		assertThat(this.notified.get()).isEqualTo(0);
+
+		// when it is done
+		this.tracker.done(OPERATION_ID, "[1,2]");
+
+		// then its result is stored and the waiting listener is called once
+		assertThat(status().getStatus()).isEqualTo(AsyncOperationStatus.DONE);
+		assertThat(status().getResult()).isEqualTo("[1,2]");
+		assertThat(status().getFinishedTimestamp()).isNotNull();
+		assertThat(status().isFinished()).isTrue();
+		assertThat(this.notified.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testRetryingIsNotFinished() throws Exception {
+		// given a running operation whose transaction rolled back before its last delivery
+		this.tracker.queued(OPERATION_ID, USER_ID);
+		this.tracker.running(OPERATION_ID);
+
+		// when it is marked for retry
+		this.tracker.retrying(OPERATION_ID, "deadlock");
+
+		// then the error is reported but nobody is told the operation ended
+		assertThat(status().getStatus()).isEqualTo(AsyncOperationStatus.RETRYING);
+		assertThat(status().getError()).isEqualTo("deadlock");
+		assertThat(status().isFinished()).isFalse();
+		assertThat(status().getFinishedTimestamp()).isNull();
+		assertThat(this.notified.get()).isEqualTo(0);
+
+		// and the redelivered message starts over and can still succeed
+		this.tracker.running(OPERATION_ID);
+		assertThat(status().getError()).isNull();
+		this.tracker.done(OPERATION_ID, null);
+		assertThat(status().getStatus()).isEqualTo(AsyncOperationStatus.DONE);
+		assertThat(this.notified.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testFailedOnTheLastDelivery() throws Exception {
+		// given an operation that was retried
+		this.tracker.queued(OPERATION_ID, USER_ID);
+		this.tracker.running(OPERATION_ID);
+		this.tracker.retrying(OPERATION_ID, "deadlock");
+		this.tracker.running(OPERATION_ID);
+
+		// when its last delivery fails
+		this.tracker.failed(OPERATION_ID, null);
+
+		// then it is finished with an error and the listener is called
+		assertThat(status().getStatus()).isEqualTo(AsyncOperationStatus.FAILED);
+		assertThat(status().getError()).isEqualTo("Operation failed");
+		assertThat(status().isFinished()).isTrue();
+		assertThat(this.notified.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testLongResultsAndErrorsAreCut() throws Exception {
+		// given a tracker storing results of up to 5 characters
+		this.tracker.setMaxResultLength(5);
+		StringBuilder error = new StringBuilder();
+		while (error.length() <= AsyncOperationEntity.MAX_ERROR_LENGTH)
+			error.append("error ");
+
+		// when a longer result is returned
+		this.tracker.done(OPERATION_ID, "123456");
+
+		// then it is not stored and the operation says why
+		assertThat(status().getResult()).isNull();
+		assertThat(status().getError()).contains("5 characters");
+
+		// and an error longer than its column is cut to fit
+		this.tracker.failed(OPERATION_ID, error.toString());
+		assertThat(status().getError()).hasSize(AsyncOperationEntity.MAX_ERROR_LENGTH);
+	}
+
+	@Test
+	public void testRemovedListenerIsNotCalled() throws Exception {
+		// given a client that stopped waiting
+		AtomicInteger gone = new AtomicInteger();
+		Runnable listener = gone::incrementAndGet;
+		this.tracker.addListener(OPERATION_ID, listener);
+		this.tracker.removeListener(OPERATION_ID, listener);
+
+		// when the operation is done
+		this.tracker.done(OPERATION_ID, null);
+
+		// then only the listeners still waiting are called
+		assertThat(gone.get()).isEqualTo(0);
+		assertThat(this.notified.get()).isEqualTo(1);
+	}
+}
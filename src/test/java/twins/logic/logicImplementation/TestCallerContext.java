@@ -0,0 +1,111 @@
+package twins.logic.logicImplementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import twins.data.UserIdPK;
+import twins.users.UserBoundary;
+import twins.users.UserId;
+
+public class TestCallerContext {
+	private static final UserIdPK USER_ID = new UserIdPK("space", "user@mail.com");
+
+	private static UserBoundary user(String role) {
+		UserBoundary rv = new UserBoundary(new UserId(USER_ID.getSpace(), USER_ID.getEmail()));
+		rv.setRole(role);
+		rv.setUsername("user");
+		return rv;
+	}
+
+	@Test
+	public void testUserIsResolvedOncePerRequest() throws Exception {
+		// given an open request
+		CallerContext context = new CallerContext();
+		context.begin();
+
+		// when the user is looked up and bound
+		context.countLookup();
+		context.setResolvedUser(USER_ID, user("MANAGER"));
+
+		// then later logins of the request reuse it, and the lookups are reported when the request ends
+		assertThat(context.getResolvedUser(USER_ID).getRole()).isEqualTo("MANAGER");
+		assertThat(context.end()).isEqualTo(1);
+		assertThat(context.isActive()).isFalse();
+		assertThat(context.getResolvedUser(USER_ID)).isNull();
+	}
+
+	@Test
+	public void testResolvedUserCanNotBeChangedByTheCaller() throws Exception {
+		// given a bound user
+		CallerContext context = new CallerContext();
+		context.begin();
+		try {
+			UserBoundary bound = user("MANAGER");
+			context.setResolvedUser(USER_ID, bound);
+
+			// when the caller changes the object it bound and the one it got back
+			bound.setRole("ADMIN");
+			context.getResolvedUser(USER_ID).setRole("PLAYER");
+
+			// then the request still sees the user as it was resolved
+			assertThat(context.getResolvedUser(USER_ID).getRole()).isEqualTo("MANAGER");
+		} finally {
+			context.end();
+		}
+	}
+
+	@Test
+	public void testNothingIsBoundOutsideARequest() throws Exception {
+		// given no open request
+		CallerContext context = new CallerContext();
+
+		// when a user is bound
+		context.setResolvedUser(USER_ID, user("MANAGER"));
+		context.countLookup();
+
+		// then nothing is kept
+		assertThat(context.getResolvedUser(USER_ID)).isNull();
+		assertThat(context.getLookupCount()).isEqualTo(0);
+		assertThat(context.end()).isEqualTo(0);
+	}
+
+	@Test
+	public void testRequestsOfOtherThreadsAreIsolated() throws Exception {
+		// given a request open on this thread with a bound user
+		CallerContext context = new CallerContext();
+		context.begin();
+		context.setResolvedUser(USER_ID, user("MANAGER"));
+
+		ExecutorService other = Executors.newSingleThreadExecutor();
+		CountDownLatch otherBound = new CountDownLatch(1);
+		try {
+			// when another thread opens its own request and binds the same user with another role
+			Future<String> otherRole = other.submit(() -> {
+				context.begin();
+				try {
+					assertThat(context.getResolvedUser(USER_ID)).isNull();
+					context.setResolvedUser(USER_ID, user("PLAYER"));
+					otherBound.countDown();
+					return context.getResolvedUser(USER_ID).getRole();
+				} finally {
+					context.end();
+				}
+			});
+
+			// then each thread sees only its own binding
+			assertThat(otherBound.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(otherRole.get(5, TimeUnit.SECONDS)).isEqualTo("PLAYER");
+			assertThat(context.getResolvedUser(USER_ID).getRole()).isEqualTo("MANAGER");
+		} finally {
+			other.shutdownNow();
+			context.end();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package twins.logic.logicImplementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import twins.data.UserIdPK;
+import twins.data.UserRole;
+
+public class TestPrivilegeContext {
+	private static final UserIdPK MANAGER = new UserIdPK("space", "manager@mail.com");
+	private static final UserIdPK OTHER = new UserIdPK("space", "other@mail.com");
+
+	@Test
+	public void testNestedElevationsAreUndoneInOrder() throws Exception {
+		// given an empty context
+		PrivilegeContext context = new PrivilegeContext();
+
+		// when a user is elevated inside another elevation of the same user
+		context.runAs(MANAGER, UserRole.PLAYER, () -> {
+			assertThat(context.getElevatedRole(MANAGER)).isEqualTo(UserRole.PLAYER);
+
+			context.runAs(MANAGER, UserRole.ADMIN, () -> {
+				// then the innermost role wins, and only for that user
+				assertThat(context.getElevatedRole(MANAGER)).isEqualTo(UserRole.ADMIN);
+				assertThat(context.getElevatedRole(OTHER)).isNull();
+			});
+
+			assertThat(context.getElevatedRole(MANAGER)).isEqualTo(UserRole.PLAYER);
+		});
+
+		// and nothing is left after the outer one
+		assertThat(context.getElevatedRole(MANAGER)).isNull();
+	}
+
+	@Test
+	public void testElevationIsUndoneWhenTheActionFails() throws Exception {
+		// given an action that throws
+		PrivilegeContext context = new PrivilegeContext();
+
+		// when it runs elevated
+		assertThatThrownBy(() -> context.runAs(MANAGER, UserRole.PLAYER, () -> {
+			throw new IllegalStateException("failed");
+		})).isInstanceOf(IllegalStateException.class);
+
+		// then the stored role is in effect again
+		assertThat(context.getElevatedRole(MANAGER)).isNull();
+	}
+
+	@Test
+	public void testElevationIsNotSeenByOtherThreads() throws Exception {
+		// given two threads sharing the context
+		PrivilegeContext context = new PrivilegeContext();
+		ExecutorService other = Executors.newSingleThreadExecutor();
+		CountDownLatch elevated = new CountDownLatch(1);
+		CountDownLatch checked = new CountDownLatch(1);
+		try {
+			Future<UserRole> seen = other.submit(() -> {
+				elevated.await(5, TimeUnit.SECONDS);
+				try {
+					return context.getElevatedRole(MANAGER);
+				} finally {
+					checked.countDown();
+				}
+			});
+
+			// when one thread elevates the user and waits inside the elevation
+			context.runAs(MANAGER, UserRole.PLAYER, () -> {
+				elevated.countDown();
+				try {
+					checked.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			});
+
+			// then the other thread still sees the stored role
+			assertThat(seen.get(5, TimeUnit.SECONDS)).isNull();
+		} finally {
+			other.shutdownNow();
+		}
+	}
+}
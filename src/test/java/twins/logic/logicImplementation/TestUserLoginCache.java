@@ -0,0 +1,71 @@
+package twins.logic.logicImplementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import twins.data.UserIdPK;
+import twins.users.UserBoundary;
+import twins.users.UserId;
+
+public class TestUserLoginCache {
+	private static final UserIdPK USER_ID = new UserIdPK("space", "user@mail.com");
+
+	private static UserBoundary user(String role) {
+		UserBoundary rv = new UserBoundary(new UserId(USER_ID.getSpace(), USER_ID.getEmail()));
+		rv.setRole(role);
+		rv.setUsername("user");
+		return rv;
+	}
+
+	@Test
+	public void testLoggedInUserIsCached() throws Exception {
+		// given a login that read the user
+		UserLoginCache cache = new UserLoginCache();
+		long generation = cache.getGeneration();
+
+		// when it is cached
+		cache.put(USER_ID, user("MANAGER"), generation);
+
+		// then the next login is a hit, and changing the returned user does not change the cache
+		cache.get(USER_ID).setRole("ADMIN");
+		assertThat(cache.get(USER_ID).getRole()).isEqualTo("MANAGER");
+		assertThat(cache.getHits()).isEqualTo(2);
+	}
+
+	@Test
+	public void testRowReadBeforeAnInvalidationIsNotCached() throws Exception {
+		// given a login that read the user before an update committed
+		UserLoginCache cache = new UserLoginCache();
+		long generation = cache.getGeneration();
+		UserBoundary stale = user("PLAYER");
+
+		// when the update invalidates the user and only then the login caches what it read
+		cache.invalidate(USER_ID);
+		cache.put(USER_ID, stale, generation);
+
+		// then the stale row is not cached, and the next login reads the user again
+		assertThat(cache.get(USER_ID)).isNull();
+		assertThat(cache.getStalePuts()).isEqualTo(1);
+
+		cache.put(USER_ID, user("MANAGER"), cache.getGeneration());
+		assertThat(cache.get(USER_ID).getRole()).isEqualTo("MANAGER");
+	}
+
+	@Test
+	public void testLeastRecentlyUsedUserIsEvicted() throws Exception {
+		// given a cache of one user
+		UserLoginCache cache = new UserLoginCache();
+		cache.setMaxSize(1);
+		UserIdPK other = new UserIdPK("space", "other@mail.com");
+
+		// when a second user is cached
+		cache.put(USER_ID, user("MANAGER"), cache.getGeneration());
+		cache.put(other, user("PLAYER"), cache.getGeneration());
+
+		// then the first one is gone
+		assertThat(cache.get(USER_ID)).isNull();
+		assertThat(cache.get(other)).isNotNull();
+		assertThat(cache.getEvictions()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,98 @@
+package twins.logic.logicImplementation.jpa;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Calendar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import twins.data.RevenueRollupIdPK;
+import twins.data.dao.RevenueRollupsDao;
+import twins.items.ItemBoundary;
+import twins.items.ItemIdBoundary;
+import twins.items.attributes.AttributeSchemas;
+
+public class TestRevenueRollupService {
+	private RevenueRollupServiceJpa revenueRollupService;
+	private RevenueRollupsDao revenueRollupsDao;
+
+	@BeforeEach
+	public void setUp() {
+		AttributeSchemas attributeSchemas = new AttributeSchemas();
+		attributeSchemas.setJackson(new ObjectMapper());
+		this.revenueRollupsDao = mock(RevenueRollupsDao.class);
+
+		this.revenueRollupService = new RevenueRollupServiceJpa();
+		this.revenueRollupService.setAttributeSchemas(attributeSchemas);
+		this.revenueRollupService.setRevenueRollupsDao(this.revenueRollupsDao);
+	}
+
+	private static ItemBoundary maintenance(String attributes) {
+		Calendar created = Calendar.getInstance();
+		created.clear();
+		created.set(2021, Calendar.JUNE, 15);
+
+		ItemBoundary rv = new ItemBoundary();
+		rv.setItemId(new ItemIdBoundary("space", "id"));
+		rv.setType(AttributeSchemas.MAINTENANCE);
+		rv.setCreatedTimestamp(created.getTime());
+		rv.setItemAttributesJson(attributes);
+		return rv;
+	}
+
+	@Test
+	public void testMaintenanceIsCountedForItsWorker() throws Exception {
+		// when a fixed maintenance is created
+		this.revenueRollupService.updateMaintenance(null,
+				maintenance("{\"price\":120.5,\"workerSpace\":\"space\",\"workerEmail\":\"worker@mail.com\"}"));
+
+		// then its price is added to the worker's month
+		verify(this.revenueRollupsDao).addMaintenance("space", 2021, 6, "space", "worker@mail.com", 120.5);
+	}
+
+	@Test
+	public void testPriceWithoutWorkerStillCounts() throws Exception {
+		// when a priced maintenance without a worker is created
+		this.revenueRollupService.updateMaintenance(null, maintenance("{\"price\":80}"));
+
+		// then its price is added to the month, under no worker
+		verify(this.revenueRollupsDao).addMaintenance("space", 2021, 6,
+				RevenueRollupIdPK.NO_WORKER, RevenueRollupIdPK.NO_WORKER, 80.0);
+	}
+
+	@Test
+	public void testMaintenanceMovesToItsNewWorker() throws Exception {
+		// given a maintenance without a worker
+		ItemBoundary before = maintenance("{\"price\":80}");
+
+		// when a worker and a new price are set
+		this.revenueRollupService.updateMaintenance(before,
+				maintenance("{\"price\":100,\"workerSpace\":\"space\",\"workerEmail\":\"worker@mail.com\"}"));
+
+		// then the old price leaves the month without a worker and the new one is counted for the worker
+		verify(this.revenueRollupsDao).removeMaintenance("space", 2021, 6,
+				RevenueRollupIdPK.NO_WORKER, RevenueRollupIdPK.NO_WORKER, 80.0);
+		verify(this.revenueRollupsDao).deleteEmptyRollup("space", 2021, 6,
+				RevenueRollupIdPK.NO_WORKER, RevenueRollupIdPK.NO_WORKER);
+		verify(this.revenueRollupsDao).addMaintenance("space", 2021, 6, "space", "worker@mail.com", 100.0);
+	}
+
+	@Test
+	public void testMaintenanceWithoutPriceIsNotCounted() throws Exception {
+		// when a maintenance without a price is created
+		this.revenueRollupService.updateMaintenance(null,
+				maintenance("{\"workerSpace\":\"space\",\"workerEmail\":\"worker@mail.com\"}"));
+
+		// then no rollup changes
+		verify(this.revenueRollupsDao, never()).addMaintenance(anyString(), anyInt(), anyInt(), anyString(),
+				anyString(), anyDouble());
+	}
+}